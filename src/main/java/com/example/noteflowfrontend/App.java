@@ -4,57 +4,36 @@ package com.example.noteflowfrontend;
 import com.example.noteflowfrontend.core.Auth;
 import com.example.noteflowfrontend.pages.*;
 import com.example.noteflowfrontend.shell.AppShell;
+import com.example.noteflowfrontend.shell.Router;
 import javafx.application.Application;
 import javafx.scene.Scene;
 import javafx.scene.image.Image;
 import javafx.stage.Stage;
 
+import java.util.Set;
+
 public class App extends Application {
+    private static final Set<String> CHROMELESS = Set.of("login", "signup", "welcome-weather");
+
     @Override
     public void start(Stage stage) {
         AppShell shell = new AppShell();
         Image icon = new Image(getClass().getResourceAsStream("/icon.png"));
 
-        // --- AUTH ROUTES (NO SIDEBAR/TOPBAR)
-        shell.router.mount("login", () -> {
-            shell.setChromeVisible(false);
-            return new com.example.noteflowfrontend.pages.LoginPage(shell.router).getRoot();
-        });
+        // --- AUTH ROUTES (NO SIDEBAR/TOPBAR); rebuilt each time so forms start empty
+        shell.router.mount("login", () -> new com.example.noteflowfrontend.pages.LoginPage(shell.router).getRoot());
+        shell.router.mount("signup", () -> new com.example.noteflowfrontend.pages.SignupPage(shell.router).getRoot());
 
-        shell.router.mount("signup", () -> {
-            shell.setChromeVisible(false);
-            return new com.example.noteflowfrontend.pages.SignupPage(shell.router).getRoot();
-        });
+        // --- APP ROUTES (WITH SIDEBAR/TOPBAR); kept between visits and refreshed in onShow
+        shell.router.mount("folders", Router.Cache.SINGLETON, FoldersPage::new);   // My Notes
+        shell.router.mount("favorites", Router.Cache.SINGLETON, FavoritesPage::new);
+        shell.router.mount("trash", Router.Cache.SINGLETON, TrashPage::new);
+        shell.router.mount("todos", Router.Cache.SINGLETON, TodosPage::new);
+        shell.router.mount("Ai", Router.Cache.SINGLETON, ChatPage::new);
+        shell.router.mount("profile", Router.Cache.LRU, ProfilePage::new);
+        shell.router.mount("gpa-calculator", Router.Cache.LRU, GpaCalculatorPage::new);
 
-        // --- APP ROUTES (WITH SIDEBAR/TOPBAR)
-        shell.router.mount("folders", () -> {
-            shell.setChromeVisible(true);
-            return new FoldersPage();   // My Notes
-        });
-        shell.router.mount("favorites", () -> {
-            shell.setChromeVisible(true);
-            return new FavoritesPage();
-        });
-        shell.router.mount("trash", () -> {
-            shell.setChromeVisible(true);
-            return new TrashPage();
-        });
-        shell.router.mount("todos", () -> {
-            shell.setChromeVisible(true);
-            return new TodosPage();
-        });
-        shell.router.mount("profile", () -> {
-            shell.setChromeVisible(true);
-            return new ProfilePage();
-        });
-        shell.router.mount("gpa-calculator", () -> {
-            shell.setChromeVisible(true);
-            return new GpaCalculatorPage();
-        });
-        shell.router.mount("Ai", () -> {
-            shell.setChromeVisible(true);
-            return new ChatPage();
-        });
+        shell.router.addNavigationListener(route -> shell.setChromeVisible(!CHROMELESS.contains(route)));
 
 
         // first screen (choose one)
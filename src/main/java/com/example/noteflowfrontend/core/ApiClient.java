@@ -1,21 +1,63 @@
 // core/ApiClient.java
 package com.example.noteflowfrontend.core;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import javafx.application.Platform;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URI;
-import java.net.CookieManager;
 import java.net.http.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 public class ApiClient {
     private static String BASE = "http://localhost:8080/api";
-    private static final HttpClient http = HttpClient.newBuilder()
-            .cookieHandler(new CookieManager()).build();
+
+    /** Pool for reading and parsing responses, so nothing blocks the FX thread. */
+    private static final ExecutorService io = Transport.workers();
+
+    private static final HttpClient http = Transport.client();
 
     private static final ObjectMapper mapper = JacksonConfig.getObjectMapper();
 
+    /** Requests sent and not yet answered; background work waits for this to reach zero. */
+    private static final AtomicInteger inFlight = new AtomicInteger();
+
+    /** GETs on the wire, by caller identity, path and result type; identical GETs join these. */
+    private static final Map<String, CompletableFuture<?>> pendingGets = new ConcurrentHashMap<>();
+    private static final Map<String, SharedStream<?>> pendingStreams = new ConcurrentHashMap<>();
+
+    /** Use with {@code thenAcceptAsync(..., ApiClient.FX)} to get callbacks on the JavaFX Application Thread. */
+    public static final Executor FX = Platform::runLater;
+
     private static String bearer;
 
+    /** JSON bodies at least this large are gzipped when {@link #setGzipRequests} is on. */
+    private static final int GZIP_MIN_BYTES = 1024;
+    private static volatile boolean gzipRequests = Boolean.getBoolean("noteflow.gzipRequests");
+
+    /** Streamed array bodies larger than this are passed through without being kept for the cache. */
+    private static final int MAX_TEE_BYTES = 2 * 1024 * 1024;
+
     public static void setBearer(String token) {
         bearer = token;
     }
@@ -28,46 +70,386 @@ public class ApiClient {
         bearer = null;
     }
 
+    public static int inFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Sends large POST/PUT/PATCH bodies with {@code Content-Encoding: gzip}. Off by default since the
+     * server has to accept it ({@code -Dnoteflow.gzipRequests=true} turns it on at startup); a 415
+     * answer switches it back off and the request is resent plain.
+     */
+    public static void setGzipRequests(boolean enabled) {
+        gzipRequests = enabled;
+    }
+
     private static HttpRequest.Builder base(URI uri) {
-        var b = HttpRequest.newBuilder(uri);
+        var b = Transport.request(uri);
+        b.header("Accept-Encoding", "gzip, deflate");
         if (bearer != null && !bearer.isBlank())
             b.header("Authorization", "Bearer " + bearer);
         return b;
     }
 
+    // ================= Blocking (only call from background threads) =================
     public static <T> T get(String path, Class<T> type) throws Exception {
-        var req = base(URI.create(BASE + path)).GET().build();
-        var res = http.send(req, HttpResponse.BodyHandlers.ofString());
-        if (res.statusCode() >= 300) throw new RuntimeException(res.body());
-        return mapper.readValue(res.body(), type);
+        return await(getAsync(path, type));
     }
 
     public static <T> T post(String path, Object body, Class<T> type) throws Exception {
-        String json = mapper.writeValueAsString(body);
-        var req = base(URI.create(BASE + path))
-                .header("Content-Type", "application/json")
-                .POST(HttpRequest.BodyPublishers.ofString(json)).build();
-        var res = http.send(req, HttpResponse.BodyHandlers.ofString());
-        if (res.statusCode() >= 300) throw new RuntimeException(res.body());
-        return mapper.readValue(res.body(), type);
+        return await(postAsync(path, body, type));
     }
 
     public static <T> T put(String path, Object body, Class<T> type) throws Exception {
-        String json = mapper.writeValueAsString(body);
-        var req = base(URI.create(BASE + path))
-                .header("Content-Type", "application/json")
-                .PUT(HttpRequest.BodyPublishers.ofString(json)).build();
-        var res = http.send(req, HttpResponse.BodyHandlers.ofString());
-        if (res.statusCode() >= 300) throw new RuntimeException(res.body());
-        return mapper.readValue(res.body(), type);
+        return await(putAsync(path, body, type));
     }
 
     public static <T> T delete(String path, Class<T> type) throws Exception {
-        var req = base(URI.create(BASE + path))
-                .DELETE().build();
-        var res = http.send(req, HttpResponse.BodyHandlers.ofString());
-        if (res.statusCode() >= 300 && res.statusCode() != 204) throw new RuntimeException(res.body());
-        if (type == null || res.statusCode() == 204 || res.body() == null || res.body().isBlank()) return null;
-        return mapper.readValue(res.body(), type);
+        return await(deleteAsync(path, type));
+    }
+
+    // ================= Async =================
+    /**
+     * GETs are single-flight: while one is in flight, an identical call gets the same response
+     * and the same deserialized object instead of a second round trip, so treat results as read-only.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> CompletableFuture<T> getAsync(String path, Class<T> type) {
+        String key = flightKey(path, type);
+        CompletableFuture<T> mine = new CompletableFuture<>();
+        CompletableFuture<T> shared = (CompletableFuture<T>) pendingGets.putIfAbsent(key, mine);
+        if (shared != null) return shared.copy();
+
+        Resilience.call("GET", path, () -> fetch(path, type)).whenComplete((value, ex) -> {
+            pendingGets.remove(key, mine);
+            if (ex != null) mine.completeExceptionally(ex);
+            else mine.complete(value);
+        });
+        // A copy, so one caller cancelling doesn't cancel it for the others
+        return mine.copy();
+    }
+
+    public static <T> CompletableFuture<T> postAsync(String path, Object body, Class<T> type) {
+        return sendJson("POST", path, body, type);
+    }
+
+    public static <T> CompletableFuture<T> putAsync(String path, Object body, Class<T> type) {
+        return sendJson("PUT", path, body, type);
+    }
+
+    public static <T> CompletableFuture<T> patchAsync(String path, Object body, Class<T> type) {
+        return sendJson("PATCH", path, body, type);
+    }
+
+    public static <T> CompletableFuture<T> deleteAsync(String path, Class<T> type) {
+        return Resilience.call("DELETE", path, () -> send(base(URI.create(BASE + path)).DELETE().build(), type));
+    }
+
+    /**
+     * Streams a JSON array response element by element straight from the socket, handing each
+     * parsed item to {@code sink} on the I/O thread. Completes with the number of items read.
+     */
+    public static <T> CompletableFuture<Integer> streamArray(String path, Class<T> elementType, Consumer<? super T> sink) {
+        String key = flightKey(path, elementType);
+        while (true) {
+            @SuppressWarnings("unchecked")
+            SharedStream<T> flight = (SharedStream<T>) pendingStreams.computeIfAbsent(key, k -> new SharedStream<T>());
+            CompletableFuture<Integer> joined = flight.join(sink);
+            if (joined == null) {
+                // Raced with the end of that stream; start or join a newer one
+                pendingStreams.remove(key, flight);
+                continue;
+            }
+            if (flight.start()) {
+                String cacheKey = HttpCache.key(path);
+                AtomicBoolean delivered = new AtomicBoolean();
+                Consumer<T> deliver = item -> {
+                    delivered.set(true);
+                    flight.accept(item);
+                };
+                // Once items have gone out, a retry would hand them out twice
+                Resilience.call("GET", path, () -> {
+                    inFlight.incrementAndGet();
+                    return CompletableFuture.supplyAsync(() -> HttpCache.lookup(cacheKey), io)
+                            .thenCompose(cached -> exchange(conditionalGet(path, cached), HttpResponse.BodyHandlers.ofInputStream())
+                                    .thenApplyAsync(res -> readArray(cacheKey, cached, res, elementType, deliver), io))
+                            .whenComplete((count, ex) -> inFlight.decrementAndGet());
+                }, () -> !delivered.get()).whenComplete((count, ex) -> {
+                    pendingStreams.remove(key, flight);
+                    flight.finish(count, ex);
+                });
+            }
+            return joined.copy();
+        }
+    }
+
+    /**
+     * One streamed GET shared by every caller that asked for it while it was running. Late joiners
+     * are first replayed what was already read, then receive the rest as it arrives.
+     */
+    private static final class SharedStream<T> {
+        private final List<T> seen = new ArrayList<>();
+        private final List<Consumer<? super T>> sinks = new ArrayList<>();
+        private final CompletableFuture<Integer> done = new CompletableFuture<>();
+        private boolean started;
+        private boolean finished;
+
+        synchronized CompletableFuture<Integer> join(Consumer<? super T> sink) {
+            if (finished) return null;
+            for (T item : seen) sink.accept(item);
+            sinks.add(sink);
+            return done;
+        }
+
+        synchronized boolean start() {
+            if (started) return false;
+            started = true;
+            return true;
+        }
+
+        synchronized void accept(T item) {
+            seen.add(item);
+            for (Consumer<? super T> s : sinks) s.accept(item);
+        }
+
+        void finish(Integer count, Throwable ex) {
+            synchronized (this) {
+                finished = true;
+            }
+            if (ex != null) done.completeExceptionally(ex);
+            else done.complete(count);
+        }
+    }
+
+    private static String flightKey(String path, Class<?> type) {
+        return bearer + " " + path + " " + (type == null ? "" : type.getName());
+    }
+
+    private static <T> CompletableFuture<T> sendJson(String method, String path, Object body, Class<T> type) {
+        byte[] json;
+        try {
+            json = mapper.writeValueAsBytes(body);
+        } catch (Exception ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+        if (!gzipRequests || json.length < GZIP_MIN_BYTES) return sendJson(method, path, json, false, type);
+
+        return sendJson(method, path, json, true, type).exceptionallyCompose(ex -> {
+            if (unwrap(ex) instanceof ApiException api && api.status() == 415) {
+                gzipRequests = false;
+                return sendJson(method, path, json, false, type);
+            }
+            return CompletableFuture.failedFuture(ex);
+        });
+    }
+
+    private static <T> CompletableFuture<T> sendJson(String method, String path, byte[] json, boolean gzip, Class<T> type) {
+        return Resilience.call(method, path, () -> send(jsonRequest(method, path, json, gzip), type));
+    }
+
+    private static HttpRequest jsonRequest(String method, String path, byte[] json, boolean gzip) {
+        var b = base(URI.create(BASE + path)).header("Content-Type", "application/json");
+        if (gzip) {
+            b.header("Content-Encoding", "gzip");
+            json = Compression.gzip(json);
+        }
+        return b.method(method, HttpRequest.BodyPublishers.ofByteArray(json)).build();
+    }
+
+    /**
+     * Feeds the array in {@code res} to {@code sink}. On 304 the elements parsed from the cached
+     * body are replayed; a fresh body with validators is recorded while it streams and cached.
+     */
+    private static <T> int readArray(String cacheKey, HttpCache.Entry cached, HttpResponse<InputStream> res,
+                                     Class<T> elementType, Consumer<? super T> sink) {
+        try (InputStream in = Compression.stream(res)) {
+            if (res.statusCode() == 304 && cached != null) {
+                List<T> items = cached.items(elementType, body -> parseArray(body, elementType));
+                items.forEach(sink);
+                return items.size();
+            }
+            if (res.statusCode() >= 300) {
+                throw ApiException.from(res, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            }
+            TeeInputStream tee = new TeeInputStream(in, MAX_TEE_BYTES);
+            List<T> items = new ArrayList<>();
+            int count = readArray(tee, elementType, item -> {
+                if (!tee.overflowed()) items.add(item);
+                sink.accept(item);
+            });
+            tee.transferTo(OutputStream.nullOutputStream());
+            byte[] body = tee.copied();
+            if (body == null) {
+                // Too big to keep; the old entry's validators no longer match the server either
+                HttpCache.forget(cacheKey);
+                return count;
+            }
+            HttpCache.Entry entry = HttpCache.store(cacheKey, res, body);
+            if (entry != null) entry.setItems(elementType, items);
+            return count;
+        } catch (JsonProcessingException ex) {
+            throw new CompletionException(ex);
+        } catch (IOException ex) {
+            // the connection failed while the body was still streaming in
+            throw new NetworkException(ex);
+        }
+    }
+
+    private static <T> List<T> parseArray(byte[] body, Class<T> elementType) {
+        List<T> out = new ArrayList<>();
+        try {
+            readArray(new ByteArrayInputStream(body), elementType, out::add);
+        } catch (IOException ex) {
+            throw new CompletionException(ex);
+        }
+        return out;
+    }
+
+    private static <T> int readArray(InputStream in, Class<T> elementType, Consumer<? super T> sink) throws IOException {
+        int count = 0;
+        try (JsonParser p = mapper.getFactory().createParser(in)) {
+            JsonToken first = p.nextToken();
+            if (first == null || first == JsonToken.VALUE_NULL) return 0;
+            if (first != JsonToken.START_ARRAY) throw new IllegalStateException("Expected a JSON array");
+            while (p.nextToken() == JsonToken.START_OBJECT) {
+                sink.accept(mapper.readValue(p, elementType));
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Keeps a copy of everything read from {@code in}, to store a streamed body in the cache. Past
+     * {@code limit} bytes the copy is dropped and reading simply passes through.
+     */
+    private static final class TeeInputStream extends FilterInputStream {
+        private final int limit;
+        private ByteArrayOutputStream copy = new ByteArrayOutputStream();
+
+        TeeInputStream(InputStream in, int limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        /** Whether the body outgrew the limit, so nothing is being kept. */
+        boolean overflowed() {
+            return copy == null;
+        }
+
+        /** What was read so far, or null once the limit was passed. */
+        byte[] copied() {
+            return copy == null ? null : copy.toByteArray();
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0 && keep(1)) copy.write(b);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buf, int off, int len) throws IOException {
+            int n = super.read(buf, off, len);
+            if (n > 0 && keep(n)) copy.write(buf, off, n);
+            return n;
+        }
+
+        private boolean keep(int n) {
+            if (copy != null && copy.size() + n > limit) copy = null;
+            return copy != null;
+        }
+
+        @Override
+        public void close() {
+            // the caller still drains and closes the underlying stream
+        }
+    }
+
+    /** A GET that revalidates what the cache holds for {@code path}, if anything. */
+    private static HttpRequest conditionalGet(String path, HttpCache.Entry cached) {
+        var b = base(URI.create(BASE + path)).GET();
+        if (cached != null && cached.etag() != null) b.header("If-None-Match", cached.etag());
+        if (cached != null && cached.lastModified() != null) b.header("If-Modified-Since", cached.lastModified());
+        return b.build();
+    }
+
+    /** Conditional GET through {@link HttpCache}; a 304 returns the cached (usually already parsed) body. */
+    private static <T> CompletableFuture<T> fetch(String path, Class<T> type) {
+        String cacheKey = HttpCache.key(path);
+        inFlight.incrementAndGet();
+        return CompletableFuture.supplyAsync(() -> HttpCache.lookup(cacheKey), io)
+                .thenCompose(cached -> exchange(conditionalGet(path, cached), HttpResponse.BodyHandlers.ofByteArray())
+                        .thenApplyAsync(res -> {
+                            if (res.statusCode() == 304 && cached != null) {
+                                return type == null ? null : cached.parsed(type, body -> parse(body, type));
+                            }
+                            byte[] body = Compression.bytes(res);
+                            if (res.statusCode() >= 300) {
+                                throw ApiException.from(res, new String(body, StandardCharsets.UTF_8));
+                            }
+                            HttpCache.Entry entry = res.statusCode() == 200 ? HttpCache.store(cacheKey, res, body) : null;
+                            if (type == null || body == null || body.length == 0) return null;
+                            return entry != null ? entry.parsed(type, b -> parse(b, type)) : parse(body, type);
+                        }, io))
+                .whenComplete((r, ex) -> inFlight.decrementAndGet());
+    }
+
+    private static <T> T parse(byte[] body, Class<T> type) {
+        if (body.length == 0) return null;
+        try {
+            return mapper.readValue(body, type);
+        } catch (Exception ex) {
+            throw new CompletionException(ex);
+        }
+    }
+
+    private static <T> CompletableFuture<T> send(HttpRequest req, Class<T> type) {
+        inFlight.incrementAndGet();
+        return exchange(req, HttpResponse.BodyHandlers.ofByteArray())
+                .thenApplyAsync(res -> read(res, type), io)
+                .whenComplete((r, ex) -> inFlight.decrementAndGet());
+    }
+
+    /**
+     * Sends {@code req}. Only a failure of the exchange itself becomes a {@link NetworkException};
+     * a body that can't be parsed is the server's answer and fails as it is, without retries.
+     */
+    private static <B> CompletableFuture<HttpResponse<B>> exchange(HttpRequest req, HttpResponse.BodyHandler<B> handler) {
+        return http.sendAsync(req, handler).exceptionallyCompose(ex -> CompletableFuture.failedFuture(
+                unwrap(ex) instanceof IOException io ? new NetworkException(io) : ex));
+    }
+
+    private static <T> T read(HttpResponse<byte[]> res, Class<T> type) {
+        byte[] body = Compression.bytes(res);
+        if (res.statusCode() >= 300) throw ApiException.from(res, new String(body, StandardCharsets.UTF_8));
+        if (type == null || res.statusCode() == 204 || isBlank(body)) return null;
+        return parse(body, type);
+    }
+
+    private static boolean isBlank(byte[] body) {
+        for (byte c : body) {
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') return false;
+        }
+        return true;
+    }
+
+    private static <T> T await(CompletableFuture<T> f) throws Exception {
+        try {
+            return f.get();
+        } catch (ExecutionException ex) {
+            Throwable cause = unwrap(ex);
+            if (cause instanceof Exception e) throw e;
+            throw ex;
+        }
+    }
+
+    /** Strips the CompletionException/ExecutionException wrappers so pages can show the real message. */
+    public static Throwable unwrap(Throwable t) {
+        while ((t instanceof CompletionException || t instanceof ExecutionException) && t.getCause() != null) {
+            t = t.getCause();
+        }
+        return t;
     }
 }
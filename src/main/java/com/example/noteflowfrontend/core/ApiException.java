@@ -0,0 +1,72 @@
+package com.example.noteflowfrontend.core;
+
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/** Non-2xx answer from the backend; the message is the response body, as before. */
+public class ApiException extends RuntimeException {
+    private final int status;
+    private final Duration retryAfter;
+
+    public ApiException(int status, String body) {
+        this(status, body, null);
+    }
+
+    public ApiException(int status, String body, Duration retryAfter) {
+        super(body);
+        this.status = status;
+        this.retryAfter = retryAfter;
+    }
+
+    /** The error for {@code res}, including its {@code Retry-After} hint if it sent one. */
+    static ApiException from(HttpResponse<?> res, String body) {
+        return new ApiException(res.statusCode(), body,
+                res.headers().firstValue("Retry-After").map(ApiException::parseRetryAfter).orElse(null));
+    }
+
+    public int status() {
+        return status;
+    }
+
+    /** How long the server asked us to wait before trying again; null if it didn't say. */
+    public Duration retryAfter() {
+        return retryAfter;
+    }
+
+    /** True when the server doesn't know the endpoint/verb, i.e. an optional feature is missing. */
+    public boolean isUnsupported() {
+        return status == 404 || status == 405 || status == 501;
+    }
+
+    /**
+     * PATCH itself (405/501) or its media type (415) isn't accepted, so the caller should retry with
+     * a full PUT. Validation errors (400/422) aren't included; they would fail as a PUT too.
+     */
+    public boolean isPartialUpdateRejected() {
+        return status == 405 || status == 415 || status == 501;
+    }
+
+    /** Overload or a transient server/gateway failure: the same request may well succeed later. */
+    public boolean isTransient() {
+        return status == 408 || status == 425 || status == 429
+                || status == 500 || status == 502 || status == 503 || status == 504;
+    }
+
+    /** Retry-After is either delay-seconds or an HTTP date. */
+    private static Duration parseRetryAfter(String value) {
+        String v = value.trim();
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(v)));
+        } catch (NumberFormatException notSeconds) {
+            try {
+                Duration d = Duration.between(ZonedDateTime.now(), ZonedDateTime.parse(v, DateTimeFormatter.RFC_1123_DATE_TIME));
+                return d.isNegative() ? Duration.ZERO : d;
+            } catch (DateTimeParseException ignored) {
+                return null;
+            }
+        }
+    }
+}
@@ -15,6 +15,7 @@ public class Auth {
                 token = resp.token();
                 ApiClient.setBearer(token);
                 me = new UserDto(null, resp.username(), resp.email());
+                Outbox.resume();
                 return true;
             }
         } catch (Exception ex) {
@@ -32,6 +33,7 @@ public class Auth {
                 token = resp.token();
                 ApiClient.setBearer(token);
                 me = new UserDto(null, resp.username(), resp.email());
+                Outbox.resume();
                 return true;
             }
         } catch (Exception ex) {
@@ -41,7 +43,8 @@ public class Auth {
     }
 
     public static void logout() {
-        token = null; me = null; ApiClient.clearBearer();
+        token = null; me = null; ApiClient.clearBearer(); NoteApi.clearCache();
+        TodoApi.clearCache(); Prefetcher.clear(); Outbox.stop();
     }
     public static boolean isLoggedIn() { return token != null; }
     public static UserDto currentUser() { return me; }
@@ -0,0 +1,18 @@
+package com.example.noteflowfrontend.core;
+
+import java.time.Duration;
+
+/** Refused locally: the endpoint has been failing, so requests are paused instead of sent. */
+public class CircuitOpenException extends RuntimeException {
+    private final Duration retryIn;
+
+    public CircuitOpenException(Duration retryIn) {
+        super("The server is having trouble right now. Trying again in "
+                + Math.max(1, (retryIn.toMillis() + 999) / 1000) + " s.");
+        this.retryIn = retryIn;
+    }
+
+    public Duration retryIn() {
+        return retryIn;
+    }
+}
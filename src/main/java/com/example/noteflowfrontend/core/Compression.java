@@ -0,0 +1,75 @@
+package com.example.noteflowfrontend.core;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.http.HttpResponse;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Content-Encoding support for {@link ApiClient}. The JDK HttpClient neither asks for nor undoes
+ * compression, so requests advertise {@code gzip, deflate} and bodies are decoded here, as a
+ * stream where the caller streams.
+ */
+class Compression {
+
+    private Compression() {}
+
+    /** The decoded body of a streamed response. */
+    static InputStream stream(HttpResponse<InputStream> res) throws IOException {
+        if (res.statusCode() == 204 || res.statusCode() == 304) return res.body();
+        return decode(res.body(), encoding(res));
+    }
+
+    /** The decoded body of a buffered response. */
+    static byte[] bytes(HttpResponse<byte[]> res) {
+        byte[] body = res.body() == null ? new byte[0] : res.body();
+        String encoding = encoding(res);
+        if (encoding.isEmpty() || encoding.equals("identity") || body.length == 0) return body;
+        try (InputStream in = decode(new ByteArrayInputStream(body), encoding)) {
+            return in.readAllBytes();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not decode " + encoding + " response", ex);
+        }
+    }
+
+    static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4 + 64);
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(data);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return out.toByteArray();
+    }
+
+    private static InputStream decode(InputStream in, String encoding) throws IOException {
+        return switch (encoding) {
+            case "gzip", "x-gzip" -> new GZIPInputStream(in, 8192);
+            case "deflate" -> inflate(in);
+            default -> in;
+        };
+    }
+
+    /** "deflate" should be zlib-wrapped, but some servers send raw deflate; the zlib header tells. */
+    private static InputStream inflate(InputStream in) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(in);
+        buffered.mark(2);
+        int cmf = buffered.read();
+        int flg = buffered.read();
+        buffered.reset();
+        boolean zlib = cmf >= 0 && flg >= 0 && (cmf & 0x0F) == 8 && (cmf * 256 + flg) % 31 == 0;
+        return new InflaterInputStream(buffered, new Inflater(!zlib), 8192);
+    }
+
+    private static String encoding(HttpResponse<?> res) {
+        return res.headers().firstValue("Content-Encoding").orElse("").trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.noteflowfrontend.core;
+
+import javafx.application.Platform;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Collects items produced on background threads and hands them to the FX thread in batches,
+ * so a fast producer costs one {@code Platform.runLater} per frame instead of one per item.
+ */
+public class FxBatcher<T> implements Consumer<T> {
+    private final ConcurrentLinkedQueue<T> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final Consumer<List<T>> onFx;
+
+    public FxBatcher(Consumer<List<T>> onFx) {
+        this.onFx = onFx;
+    }
+
+    @Override
+    public void accept(T item) {
+        pending.add(item);
+        if (scheduled.compareAndSet(false, true)) Platform.runLater(this::drain);
+    }
+
+    /** Delivers anything still queued; call on the FX thread once the producer is done. */
+    public void flush() {
+        drain();
+    }
+
+    private void drain() {
+        scheduled.set(false);
+        List<T> batch = new ArrayList<>();
+        T item;
+        while ((item = pending.poll()) != null) batch.add(item);
+        if (!batch.isEmpty()) onFx.accept(batch);
+    }
+}
@@ -0,0 +1,248 @@
+package com.example.noteflowfrontend.core;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Validator cache for GET responses. A response that carries an {@code ETag} or
+ * {@code Last-Modified} is kept, the next identical GET is sent with {@code If-None-Match} /
+ * {@code If-Modified-Since}, and a 304 answer is served from here.
+ *
+ * Entries live in memory (LRU, {@value #MEMORY_LIMIT} bytes of bodies) and under
+ * {@code ~/.noteflow/http-cache} (LRU by file time, {@value #DISK_LIMIT} bytes), so validators survive
+ * a restart. Each entry also keeps what its body was parsed into, per type, so a 304 usually costs
+ * neither bandwidth nor parsing. Arrays are handed out as fresh copies; anything else parsed is
+ * shared and must be treated as read-only.
+ *
+ * Disk access blocks; call from background threads only.
+ */
+public class HttpCache {
+    private static final long MEMORY_LIMIT = 8L * 1024 * 1024;
+    private static final long DISK_LIMIT = 32L * 1024 * 1024;
+    private static final Path DIR = Path.of(System.getProperty("user.home"), ".noteflow", "http-cache");
+    private static final String TMP_SUFFIX = ".tmp";
+
+    /** One cached response body with its validators. */
+    public static final class Entry {
+        private final String etag;
+        private final String lastModified;
+        private final byte[] body;
+        private final Map<Class<?>, Object> parsed = new ConcurrentHashMap<>();
+        private final Map<Class<?>, List<?>> items = new ConcurrentHashMap<>();
+
+        private Entry(String etag, String lastModified, byte[] body) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.body = body;
+        }
+
+        public String etag() { return etag; }
+
+        public String lastModified() { return lastModified; }
+
+        public byte[] body() { return body; }
+
+        /**
+         * The body parsed as {@code type}, parsing it only the first time. An array comes back as a
+         * copy, so a caller that sorts or fills it can't change what the next 304 hands out.
+         */
+        @SuppressWarnings("unchecked")
+        public <T> T parsed(Class<T> type, Function<byte[], T> parser) {
+            T value = (T) parsed.computeIfAbsent(type, t -> parser.apply(body));
+            return value instanceof Object[] array ? (T) array.clone() : value;
+        }
+
+        /** Elements of a streamed JSON array body, as recorded by {@link #setItems}. */
+        @SuppressWarnings("unchecked")
+        public <T> List<T> items(Class<T> type, Function<byte[], List<T>> parser) {
+            return (List<T>) items.computeIfAbsent(type, t -> List.copyOf(parser.apply(body)));
+        }
+
+        public <T> void setItems(Class<T> type, List<T> parsedItems) {
+            items.put(type, List.copyOf(parsedItems));
+        }
+    }
+
+    private static final LinkedHashMap<String, Entry> memory = new LinkedHashMap<>(64, 0.75f, true);
+    private static long memoryBytes;
+    private static long diskBytes = -1; // unknown until the directory is first scanned
+
+    /** Cache key for {@code path}: the signed-in user, so accounts never share entries. */
+    public static String key(String path) {
+        Long uid = JwtUtil.extractUserIdFromBearer();
+        return (uid == null ? "anon" : uid) + " " + path;
+    }
+
+    /** The entry for {@code key} from memory, or from disk (and then kept in memory); null if none. */
+    public static Entry lookup(String key) {
+        synchronized (HttpCache.class) {
+            Entry hit = memory.get(key);
+            if (hit != null) return hit;
+        }
+        Entry fromDisk = readDisk(key);
+        if (fromDisk != null) remember(key, fromDisk);
+        return fromDisk;
+    }
+
+    /**
+     * Keeps {@code body} if the response carries validators and may be stored; otherwise drops any
+     * older entry for {@code key}. Returns the new entry, or null.
+     */
+    public static Entry store(String key, HttpResponse<?> res, byte[] body) {
+        String etag = res.headers().firstValue("ETag").orElse(null);
+        String lastModified = res.headers().firstValue("Last-Modified").orElse(null);
+        boolean noStore = res.headers().allValues("Cache-Control").stream()
+                .anyMatch(v -> v.toLowerCase(Locale.ROOT).contains("no-store"));
+        if ((etag == null && lastModified == null) || noStore) {
+            forget(key);
+            return null;
+        }
+        Entry entry = new Entry(etag, lastModified, body);
+        remember(key, entry);
+        writeDisk(key, entry);
+        return entry;
+    }
+
+    public static void forget(String key) {
+        synchronized (HttpCache.class) {
+            Entry old = memory.remove(key);
+            if (old != null) memoryBytes -= old.body.length;
+        }
+        Path file = fileFor(key);
+        try {
+            synchronized (HttpCache.class) {
+                long size = Files.exists(file) ? Files.size(file) : 0;
+                // Before the first scan there is no count to keep; the scan will measure what's left
+                if (Files.deleteIfExists(file) && diskBytes >= 0) diskBytes -= size;
+            }
+        } catch (IOException ignored) {
+            // stale entries are harmless: the server still decides with its validator
+        }
+    }
+
+    // ================= Memory =================
+    private static synchronized void remember(String key, Entry entry) {
+        Entry old = memory.put(key, entry);
+        if (old != null) memoryBytes -= old.body.length;
+        memoryBytes += entry.body.length;
+        Iterator<Entry> it = memory.values().iterator();
+        while (memoryBytes > MEMORY_LIMIT && it.hasNext()) {
+            Entry eldest = it.next();
+            if (eldest == entry) break;
+            memoryBytes -= eldest.body.length;
+            it.remove();
+        }
+    }
+
+    // ================= Disk =================
+    private static Entry readDisk(String key) {
+        Path file = fileFor(key);
+        if (!Files.exists(file)) return null;
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+            if (!key.equals(in.readUTF())) return null;
+            String etag = in.readUTF();
+            String lastModified = in.readUTF();
+            byte[] body = in.readNBytes(in.readInt());
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            return new Entry(etag.isEmpty() ? null : etag, lastModified.isEmpty() ? null : lastModified, body);
+        } catch (IOException ex) {
+            System.err.println("HTTP cache read failed: " + ex.getMessage());
+            return null;
+        }
+    }
+
+    private static void writeDisk(String key, Entry entry) {
+        Path tmp = null;
+        try {
+            Files.createDirectories(DIR);
+            Path file = fileFor(key);
+            // A temp file of its own, so two writers of the same key never share one
+            tmp = Files.createTempFile(DIR, file.getFileName().toString(), TMP_SUFFIX);
+            try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(tmp))) {
+                out.writeUTF(key);
+                out.writeUTF(entry.etag == null ? "" : entry.etag);
+                out.writeUTF(entry.lastModified == null ? "" : entry.lastModified);
+                out.writeInt(entry.body.length);
+                out.write(entry.body);
+            }
+            synchronized (HttpCache.class) {
+                long previous = Files.exists(file) ? Files.size(file) : 0;
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                tmp = null;
+                trimDisk(Files.size(file) - previous);
+            }
+        } catch (IOException ex) {
+            System.err.println("HTTP cache write failed: " + ex.getMessage());
+        } finally {
+            if (tmp != null) {
+                try {
+                    Files.deleteIfExists(tmp);
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    /**
+     * Deletes least recently used files until the directory is back under {@link #DISK_LIMIT}.
+     * Temp files belong to writes still in progress and are neither counted nor evicted.
+     */
+    private static synchronized void trimDisk(long added) throws IOException {
+        if (diskBytes < 0) {
+            diskBytes = 0;
+            try (Stream<Path> files = Files.list(DIR)) {
+                for (Path p : (Iterable<Path>) files::iterator) {
+                    if (!isTemp(p)) diskBytes += Files.size(p);
+                }
+            }
+        } else {
+            diskBytes += added;
+        }
+        if (diskBytes <= DISK_LIMIT) return;
+
+        List<Path> files;
+        try (Stream<Path> s = Files.list(DIR)) {
+            files = new ArrayList<>(s.filter(p -> !isTemp(p)).toList());
+        }
+        files.sort(Comparator.comparing(HttpCache::lastUsed));
+        for (Path p : files) {
+            if (diskBytes <= DISK_LIMIT) break;
+            long size = Files.size(p);
+            if (Files.deleteIfExists(p)) diskBytes -= size;
+        }
+    }
+
+    private static boolean isTemp(Path p) {
+        return p.getFileName().toString().endsWith(TMP_SUFFIX);
+    }
+
+    private static FileTime lastUsed(Path p) {
+        try {
+            return Files.getLastModifiedTime(p);
+        } catch (IOException ex) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private static Path fileFor(String key) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return DIR.resolve(HexFormat.of().formatHex(hash));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
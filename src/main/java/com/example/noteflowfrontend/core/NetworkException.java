@@ -0,0 +1,27 @@
+package com.example.noteflowfrontend.core;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpTimeoutException;
+
+/** The backend couldn't be reached, or stopped answering; there is no HTTP status. */
+public class NetworkException extends RuntimeException {
+
+    public NetworkException(IOException cause) {
+        super(describe(cause), cause);
+    }
+
+    /** The connection was never made, so the request can't have reached the server. */
+    public boolean isNotSent() {
+        return getCause() instanceof ConnectException || getCause() instanceof HttpConnectTimeoutException;
+    }
+
+    private static String describe(IOException cause) {
+        if (cause instanceof ConnectException || cause instanceof HttpConnectTimeoutException) {
+            return "Can't reach the server. Check your connection and try again.";
+        }
+        if (cause instanceof HttpTimeoutException) return "The server took too long to answer.";
+        return "Connection problem: " + cause.getMessage();
+    }
+}
@@ -1,126 +1,571 @@
 package com.example.noteflowfrontend.core;
 
 import com.example.noteflowfrontend.core.dto.NoteDto;
+import com.example.noteflowfrontend.core.dto.NoteSummary;
+import com.example.noteflowfrontend.drawing.StrokeCodec;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 public class NoteApi {
 
+    // Which slice of the local store each list endpoint is authoritative for
+    public static final Predicate<NoteDto> ACTIVE = n -> !n.trashed();
+    public static final Predicate<NoteDto> FAVORITES = n -> n.favorite() && !n.trashed();
+    public static final Predicate<NoteDto> TRASH = NoteDto::trashed;
+
+    private static final ObjectMapper M = JacksonConfig.getObjectMapper();
+
     private static volatile Long cachedUserId = null;
 
-    private static String base(long userId) {
+    static String base(long userId) {
         return "/users/" + userId + "/notes";
     }
 
-    private static synchronized long uid() throws Exception {
-        if (cachedUserId != null) return cachedUserId;
+    static CompletableFuture<Long> uid() {
+        if (cachedUserId != null) return CompletableFuture.completedFuture(cachedUserId);
 
         Long fromJwt = JwtUtil.extractUserIdFromBearer();
         if (fromJwt != null) {
             cachedUserId = fromJwt;
-            return cachedUserId;
+            return CompletableFuture.completedFuture(cachedUserId);
         }
 
-        Map me = ApiClient.get("/me", Map.class);
-        Object id = (me == null) ? null : me.get("id");
-        if (id == null) throw new IllegalStateException("Unable to resolve user id from JWT or /api/me");
-
-        cachedUserId = Long.parseLong(String.valueOf(id));
-        return cachedUserId;
+        return ApiClient.getAsync("/me", Map.class).thenApply(me -> {
+            Object id = (me == null) ? null : me.get("id");
+            if (id == null) throw new IllegalStateException("Unable to resolve user id from JWT or /api/me");
+            cachedUserId = Long.parseLong(String.valueOf(id));
+            return cachedUserId;
+        });
     }
 
     public static void clearCache() { cachedUserId = null; }
 
+    // ================= Local store =================
+    /** Notes from the on-disk store, for rendering before the server answers. Empty if the user is unknown offline. */
+    public static List<NoteDto> cached(Predicate<NoteDto> filter) {
+        NoteStore store = localStore();
+        return store == null ? List.of() : store.query(filter);
+    }
+
+    /** The current user's store, or null when the user can't be resolved without the network. */
+    static NoteStore localStore() {
+        Long userId = cachedUserId != null ? cachedUserId : JwtUtil.extractUserIdFromBearer();
+        return userId == null ? null : NoteStore.forUser(userId);
+    }
+
+    /** Ids of stored notes matching {@code query}, best match first. See {@link NoteSearchIndex}. */
+    public static LinkedHashMap<Long, Integer> search(String query) {
+        NoteStore store = localStore();
+        return store == null ? new LinkedHashMap<>() : store.index().search(query);
+    }
+
+    public static boolean isStored(Long id) {
+        NoteStore store = localStore();
+        return id != null && store != null && store.get(id) != null;
+    }
+
+    private static NoteDto remember(long userId, NoteDto note) {
+        NoteStore.forUser(userId).put(note);
+        return note;
+    }
+
+    private static List<NoteDto> remember(long userId, Predicate<NoteDto> scope, NoteDto[] arr) {
+        List<NoteDto> list = Collections.unmodifiableList(Arrays.asList(arr));
+        NoteStore.forUser(userId).replace(scope, list);
+        return list;
+    }
+
     // ================= Lists =================
-    public static List<NoteDto> list() throws Exception {
-        long userId = uid();
-        NoteDto[] arr = ApiClient.get(base(userId), NoteDto[].class);
-        return Arrays.asList(arr);
+    public static CompletableFuture<List<NoteDto>> list() {
+        return uid().thenCompose(userId -> ApiClient.getAsync(base(userId), NoteDto[].class)
+                .thenApply(arr -> remember(userId, ACTIVE, arr)));
     }
 
     // NEW: list with filters
-    public static List<NoteDto> list(String tagName, String tagColor) throws Exception {
-        long userId = uid();
+    public static CompletableFuture<List<NoteDto>> list(String tagName, String tagColor) {
+        String query = filterQuery(tagName, tagColor);
+        return uid().thenCompose(userId -> ApiClient.getAsync(base(userId) + query, NoteDto[].class)
+                .thenApply(arr -> {
+                    List<NoteDto> list = Collections.unmodifiableList(Arrays.asList(arr));
+                    if (query.isEmpty()) NoteStore.forUser(userId).replace(ACTIVE, list);
+                    else NoteStore.forUser(userId).putAll(list);
+                    return list;
+                }));
+    }
+
+    /** Same as {@link #list(String, String)} but hands each note to {@code sink} as soon as it is parsed. */
+    public static CompletableFuture<Integer> stream(String tagName, String tagColor, Consumer<? super NoteDto> sink) {
+        String query = filterQuery(tagName, tagColor);
+        return uid().thenCompose(userId -> {
+            List<NoteDto> seen = new ArrayList<>();
+            return ApiClient.streamArray(base(userId) + query, NoteDto.class, n -> {
+                seen.add(n);
+                sink.accept(n);
+            }).thenApply(count -> {
+                if (query.isEmpty()) NoteStore.forUser(userId).replace(ACTIVE, seen);
+                else NoteStore.forUser(userId).putAll(seen);
+                return count;
+            });
+        });
+    }
+
+    private static String filterQuery(String tagName, String tagColor) {
         String q = "";
         if (tagName != null && !tagName.isBlank()) q += (q.isEmpty() ? "?" : "&") + "tagName=" + encode(tagName);
         if (tagColor != null && !tagColor.isBlank()) q += (q.isEmpty() ? "?" : "&") + "tagColor=" + encode(tagColor);
-        NoteDto[] arr = ApiClient.get(base(userId) + q, NoteDto[].class);
-        return Arrays.asList(arr);
+        return q;
+    }
+
+    public static CompletableFuture<NoteDto> get(long id) {
+        return uid().thenCompose(userId -> ApiClient.getAsync(base(userId) + "/" + id, NoteDto.class)
+                .thenApply(n -> remember(userId, n)));
+    }
+
+    // ================= Summaries (card grids) =================
+    public static List<NoteSummary> cachedSummaries(Predicate<NoteDto> filter) {
+        NoteStore store = localStore();
+        return store == null ? List.of() : store.summaries(filter);
     }
 
-    public static NoteDto get(long id) throws Exception {
-        long userId = uid();
-        return ApiClient.get(base(userId) + "/" + id, NoteDto.class);
+    public static CompletableFuture<List<NoteSummary>> listFavoriteSummaries() {
+        return summaries("/favorites", FAVORITES);
+    }
+
+    public static CompletableFuture<List<NoteSummary>> listTrashSummaries() {
+        return summaries("/trash", TRASH);
+    }
+
+    private static CompletableFuture<List<NoteSummary>> summaries(String suffix, Predicate<NoteDto> scope) {
+        return uid().thenCompose(userId -> {
+            List<NoteSummary> out = new ArrayList<>();
+            return ApiClient.streamArray(base(userId) + suffix + "?fields=summary", NoteSummary.Wire.class,
+                    w -> out.add(w.toSummary())).thenApply(count -> {
+                NoteStore.forUser(userId).reconcile(scope, out);
+                return out;
+            });
+        });
+    }
+
+    /** The full note behind a card: the stored copy if it is as new as the summary, otherwise {@link #get}. */
+    public static CompletableFuture<NoteDto> open(NoteSummary summary) {
+        NoteStore store = localStore();
+        NoteDto stored = store == null ? null : store.get(summary.id());
+        if (stored != null && Objects.equals(stored.updatedAt(), summary.updatedAt())) {
+            return CompletableFuture.completedFuture(stored);
+        }
+        return get(summary.id());
     }
 
     // NoteApi.java
-    public static List<NoteDto> listFavorites() throws Exception {
-        long userId = uid();
-        NoteDto[] arr = ApiClient.get(base(userId) + "/favorites", NoteDto[].class);
-        return Arrays.asList(arr);
+    public static CompletableFuture<List<NoteDto>> listFavorites() {
+        return uid().thenCompose(userId -> ApiClient.getAsync(base(userId) + "/favorites", NoteDto[].class)
+                .thenApply(arr -> remember(userId, FAVORITES, arr)));
     }
 
-    public static List<NoteDto> listTrash() throws Exception {
-        long userId = uid();
-        NoteDto[] arr = ApiClient.get(base(userId) + "/trash", NoteDto[].class);
-        return Arrays.asList(arr);
+    public static CompletableFuture<List<NoteDto>> listTrash() {
+        return uid().thenCompose(userId -> ApiClient.getAsync(base(userId) + "/trash", NoteDto[].class)
+                .thenApply(arr -> remember(userId, TRASH, arr)));
     }
 
     // ================= Create / Update =================
-    public static NoteDto create(String title, String textHtml, String drawingJson,
-                                 String tagName, String tagColor) throws Exception {
-        long userId = uid();
+    // Writes go through the Outbox: applied to the local store at once, sent in order, and kept
+    // for later if the server can't be reached.
+    public static CompletableFuture<NoteDto> create(String title, String textHtml, String drawingJson,
+                                                    String tagName, String tagColor) {
         Map<String, Object> body = new HashMap<>();
         body.put("title", (title == null || title.isBlank()) ? "Untitled" : title);
         body.put("textHtml", textHtml);
         body.put("drawingJson", drawingJson);
         body.put("tagName", tagName);
         body.put("tagColor", tagColor);
-        return ApiClient.post(base(userId), body, NoteDto.class);
+        return Outbox.submit(Outbox.NOTE_CREATE, null, body, NoteDto.class, NoteApi::localCreate);
     }
 
     // Overload to keep old call sites working
-    public static NoteDto create(String title, String textHtml, String drawingJson) throws Exception {
+    public static CompletableFuture<NoteDto> create(String title, String textHtml, String drawingJson) {
         return create(title, textHtml, drawingJson, null, null);
     }
 
-    public static NoteDto update(long id, String title, String textHtml, String drawingJson,
-                                 String tagName, String tagColor) throws Exception {
-        long userId = uid();
+    public static CompletableFuture<NoteDto> update(long id, String title, String textHtml, String drawingJson,
+                                                    String tagName, String tagColor) {
         Map<String, Object> body = new HashMap<>();
         body.put("title", title);
         body.put("textHtml", textHtml);
         body.put("drawingJson", drawingJson);
         body.put("tagName", tagName);
         body.put("tagColor", tagColor);
-        return ApiClient.put(base(userId) + "/" + id, body, NoteDto.class);
+        return put(id, body);
     }
 
     // Overload to keep old call sites working
-    public static NoteDto update(long id, String title, String textHtml, String drawingJson) throws Exception {
+    public static CompletableFuture<NoteDto> update(long id, String title, String textHtml, String drawingJson) {
         return update(id, title, textHtml, drawingJson, null, null);
     }
 
+    private static volatile boolean patchUnsupported;
+
+    /**
+     * Partial update: {@code changes} holds only the fields that changed, and may use
+     * {@code drawingAppend} (strokes to add to the stored drawing) instead of {@code drawingJson}.
+     * If the server rejects PATCH, the full note is sent as a PUT; if it doesn't support the verb at
+     * all, PATCH isn't tried again this session. If the appended strokes can't be added to the
+     * stored drawing, nothing is queued and {@code full} goes out as a PUT instead, so the store
+     * never keeps a drawing the server has moved past.
+     */
+    public static CompletableFuture<NoteDto> patch(long id, Map<String, Object> changes, Supplier<Map<String, Object>> full) {
+        if (patchUnsupported) return put(id, full.get());
+        return Outbox.submit(Outbox.NOTE_PATCH, id, new HashMap<>(changes), NoteDto.class, NoteApi::localEdit)
+                .exceptionallyCompose(ex -> ApiClient.unwrap(ex) instanceof DrawingNotApplied
+                        ? put(id, full.get())
+                        : CompletableFuture.failedFuture(ex));
+    }
+
+    /** Thrown by {@link #localEdit} when a {@code drawingAppend} doesn't fit the stored drawing. */
+    private static final class DrawingNotApplied extends RuntimeException {
+        DrawingNotApplied(IOException cause) {
+            super("Couldn't add the strokes to the stored drawing: " + cause.getMessage(), cause);
+        }
+    }
+
+    private static CompletableFuture<NoteDto> put(long id, Map<String, Object> body) {
+        return Outbox.submit(Outbox.NOTE_PUT, id, new HashMap<>(body), NoteDto.class, NoteApi::localEdit);
+    }
+
     // ================= Favorite / Trash / Delete =================
-    public static NoteDto setFavorite(long id, boolean value) throws Exception {
-        long userId = uid();
-        return ApiClient.put(base(userId) + "/" + id + "/favorite?value=" + value, Map.of(), NoteDto.class);
+    public static CompletableFuture<NoteDto> setFavorite(long id, boolean value) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("value", value);
+        return Outbox.submit(Outbox.NOTE_FAVORITE, id, body, NoteDto.class,
+                (noteId, b) -> localFlags(noteId, value, null));
+    }
+
+    public static CompletableFuture<NoteDto> setTrashed(long id, boolean value) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("value", value);
+        return Outbox.submit(Outbox.NOTE_TRASH, id, body, NoteDto.class,
+                (noteId, b) -> localFlags(noteId, null, value));
+    }
+
+    public static CompletableFuture<Void> deletePermanent(long id) {
+        return uid().thenCompose(userId -> ApiClient.deleteAsync(base(userId) + "/" + id, Void.class)
+                .thenRun(() -> NoteStore.forUser(userId).remove(id)));
+    }
+
+    // ================= Batches (multi-select) =================
+    public enum BatchAction {
+        FAVORITE("favorite"), UNFAVORITE("unfavorite"), TRASH("trash"), RESTORE("restore"), DELETE("delete");
+
+        final String wire;
+
+        BatchAction(String wire) {
+            this.wire = wire;
+        }
+
+        static BatchAction of(String wire) {
+            for (BatchAction a : values()) if (a.wire.equals(wire)) return a;
+            throw new IllegalArgumentException("Unknown batch action " + wire);
+        }
+    }
+
+    /** Notes the server refused in a {@link #batch}, with its reason; empty when everything went through. */
+    public record BatchResult(Map<Long, String> failed) {
+        /** e.g. "3 of 40 notes couldn't be changed: Forbidden" */
+        public String describe(int total) {
+            String reason = failed.values().stream().findFirst().orElse("");
+            return failed.size() + " of " + total + " notes couldn't be changed" + (reason.isBlank() ? "." : ": " + reason);
+        }
+    }
+
+    private static final int BATCH_PARALLELISM = 8;
+    private static volatile boolean batchUnsupported;
+
+    /**
+     * Applies {@code action} to all of {@code ids} with one {@code POST /users/{id}/notes/batch}.
+     * Servers without that endpoint get one request per note instead, at most
+     * {@value #BATCH_PARALLELISM} in flight at a time, and we stop asking for the rest of the session.
+     * Queued through the Outbox like single writes, so it is applied locally at once.
+     */
+    public static CompletableFuture<BatchResult> batch(BatchAction action, Collection<Long> ids) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("action", action.wire);
+        body.put("ids", new ArrayList<>(ids));
+        return Outbox.submit(Outbox.NOTE_BATCH, null, body, BatchResult.class, (none, b) -> {
+            localBatch(action, ids);
+            return new BatchResult(Map.of());
+        });
+    }
+
+    /** Applies the whole batch to the store in one log write. */
+    private static void localBatch(BatchAction action, Collection<Long> ids) {
+        NoteStore store = localStore();
+        if (store == null) return;
+        if (action == BatchAction.DELETE) {
+            store.removeAll(ids);
+            return;
+        }
+        List<NoteDto> changed = new ArrayList<>();
+        List<NoteSummary> listed = new ArrayList<>();
+        for (Long id : ids) {
+            NoteDto n = store.get(id);
+            boolean stored = n != null;
+            if (!stored) {
+                NoteSummary s = store.summary(id);
+                if (s == null) continue;
+                n = NoteStore.asNote(s);
+            }
+            NoteDto f = switch (action) {
+                case FAVORITE -> flagged(n, true, null);
+                case UNFAVORITE -> flagged(n, false, null);
+                case TRASH -> flagged(n, null, true);
+                default -> flagged(n, null, false);
+            };
+            if (stored) changed.add(f);
+            else listed.add(NoteSummary.from(f));
+        }
+        store.putAll(changed);
+        store.putSummaries(listed);
+    }
+
+    static CompletableFuture<BatchResult> sendBatch(long userId, Map<String, Object> body) {
+        BatchAction action = BatchAction.of((String) body.get("action"));
+        List<Long> ids = new ArrayList<>();
+        for (Object o : (List<?>) body.get("ids")) {
+            Long id = Outbox.resolve(((Number) o).longValue());
+            if (id >= 0) ids.add(id); // created offline and never saved: nothing to do on the server
+        }
+        if (ids.isEmpty()) return CompletableFuture.completedFuture(new BatchResult(Map.of()));
+        if (batchUnsupported) return sendEach(userId, action, ids);
+
+        Map<String, Object> wire = Map.of("action", action.wire, "ids", ids);
+        return ApiClient.postAsync(base(userId) + "/batch", wire, JsonNode.class)
+                .thenApply(res -> {
+                    // The server may answer with the changed notes
+                    if (res != null && res.isArray()) {
+                        NoteStore.forUser(userId).putAll(Arrays.asList(M.convertValue(res, NoteDto[].class)));
+                    }
+                    return new BatchResult(Map.of());
+                })
+                .exceptionallyCompose(ex -> {
+                    if (!(ApiClient.unwrap(ex) instanceof ApiException api) || !api.isUnsupported()) {
+                        return CompletableFuture.failedFuture(ex);
+                    }
+                    batchUnsupported = true;
+                    return sendEach(userId, action, ids);
+                });
+    }
+
+    /**
+     * One request per note. Notes the server refuses are reported and fetched again; a network
+     * failure fails the whole batch so the Outbox sends it again later (every action is idempotent).
+     */
+    private static CompletableFuture<BatchResult> sendEach(long userId, BatchAction action, List<Long> ids) {
+        Map<Long, String> failed = new ConcurrentHashMap<>();
+        return eachBounded(ids, id -> sendOne(userId, action, id).exceptionallyCompose(ex -> {
+            Throwable cause = ApiClient.unwrap(ex);
+            if (!(cause instanceof ApiException api) || api.isTransient()) return CompletableFuture.failedFuture(cause);
+            if (api.status() == 404) NoteStore.forUser(userId).remove(id); // already gone
+            else failed.put(id, api.getMessage());
+            return CompletableFuture.completedFuture(null);
+        })).thenApply(v -> {
+            if (!failed.isEmpty()) refetch(userId, failed.keySet());
+            return new BatchResult(Map.copyOf(failed));
+        });
+    }
+
+    private static CompletableFuture<?> sendOne(long userId, BatchAction action, long id) {
+        return switch (action) {
+            case FAVORITE -> sendFlag(userId, id, "favorite", true);
+            case UNFAVORITE -> sendFlag(userId, id, "favorite", false);
+            case TRASH -> sendFlag(userId, id, "trash", true);
+            case RESTORE -> sendFlag(userId, id, "trash", false);
+            case DELETE -> ApiClient.deleteAsync(base(userId) + "/" + id, Void.class)
+                    .thenRun(() -> NoteStore.forUser(userId).remove(id));
+        };
+    }
+
+    /** Replaces the stored copies of {@code ids} with the server's, e.g. after a refused write. */
+    static CompletableFuture<Void> refetch(long userId, Collection<Long> ids) {
+        return eachBounded(new ArrayList<>(ids), id -> fetch(userId, id).thenAccept(n -> {
+            if (n == null) NoteStore.forUser(userId).remove(id);
+        })).exceptionally(ex -> {
+            System.err.println("NoteApi: refetch failed: " + ApiClient.unwrap(ex).getMessage());
+            return null;
+        });
+    }
+
+    /**
+     * Runs {@code call} for every id with at most {@value #BATCH_PARALLELISM} in flight; each one
+     * that finishes starts the next. Fails with the first failure, after which no more are started.
+     */
+    private static CompletableFuture<Void> eachBounded(List<Long> ids, Function<Long, CompletableFuture<?>> call) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        int lanes = Math.min(BATCH_PARALLELISM, ids.size());
+        if (lanes == 0) return CompletableFuture.completedFuture(null);
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger running = new AtomicInteger(lanes);
+        for (int i = 0; i < lanes; i++) startNext(ids, call, next, running, done);
+        return done;
+    }
+
+    private static void startNext(List<Long> ids, Function<Long, CompletableFuture<?>> call,
+                                  AtomicInteger next, AtomicInteger running, CompletableFuture<Void> done) {
+        int i = next.getAndIncrement();
+        if (i >= ids.size() || done.isDone()) {
+            if (running.decrementAndGet() == 0) done.complete(null);
+            return;
+        }
+        CompletableFuture<?> f;
+        try {
+            f = call.apply(ids.get(i));
+        } catch (RuntimeException ex) {
+            f = CompletableFuture.failedFuture(ex);
+        }
+        f.whenComplete((v, ex) -> {
+            if (ex != null) done.completeExceptionally(ex);
+            startNext(ids, call, next, running, done);
+        });
+    }
+
+    // ================= Wire calls (sent by the Outbox) =================
+    static CompletableFuture<NoteDto> sendCreate(long userId, Map<String, Object> body) {
+        return ApiClient.postAsync(base(userId), body, NoteDto.class).thenApply(n -> remember(userId, n));
+    }
+
+    static CompletableFuture<NoteDto> sendPatch(long userId, long id, Map<String, Object> changes) {
+        if (patchUnsupported) return sendFull(userId, id, null);
+        return ApiClient.patchAsync(base(userId) + "/" + id, changes, NoteDto.class)
+                .thenApply(n -> remember(userId, n))
+                .exceptionallyCompose(ex -> {
+                    if (!(ApiClient.unwrap(ex) instanceof ApiException api) || !api.isPartialUpdateRejected()) {
+                        return CompletableFuture.failedFuture(ex);
+                    }
+                    // Only a missing verb is permanent; a 415 may be down to this one body
+                    if (api.status() != 415) patchUnsupported = true;
+                    return sendFull(userId, id, ex);
+                });
+    }
+
+    /** PUT of the stored copy, which already carries every queued change. */
+    private static CompletableFuture<NoteDto> sendFull(long userId, long id, Throwable cause) {
+        NoteDto stored = NoteStore.forUser(userId).get(id);
+        if (stored == null) {
+            return CompletableFuture.failedFuture(cause != null ? cause : new IllegalStateException("Note " + id + " is not stored locally"));
+        }
+        Map<String, Object> body = new HashMap<>();
+        body.put("title", stored.title());
+        body.put("textHtml", stored.textHtml());
+        body.put("drawingJson", stored.drawingJson());
+        body.put("tagName", stored.tagName());
+        body.put("tagColor", stored.tagColor());
+        return sendPut(userId, id, body);
     }
 
-    public static NoteDto setTrashed(long id, boolean value) throws Exception {
-        long userId = uid();
-        return ApiClient.put(base(userId) + "/" + id + "/trash?value=" + value, Map.of(), NoteDto.class);
+    static CompletableFuture<NoteDto> sendPut(long userId, long id, Map<String, Object> body) {
+        return ApiClient.putAsync(base(userId) + "/" + id, body, NoteDto.class).thenApply(n -> remember(userId, n));
+    }
+
+    /** {@code flag} is "favorite" or "trash". */
+    static CompletableFuture<NoteDto> sendFlag(long userId, long id, String flag, boolean value) {
+        return ApiClient.putAsync(base(userId) + "/" + id + "/" + flag + "?value=" + value, Map.of(), NoteDto.class)
+                .thenApply(n -> remember(userId, n));
+    }
+
+    /** The server's copy, or null when it no longer exists; stored like any other fetch. */
+    static CompletableFuture<NoteDto> fetch(long userId, long id) {
+        return ApiClient.getAsync(base(userId) + "/" + id, NoteDto.class)
+                .thenApply(n -> remember(userId, n))
+                .exceptionallyCompose(ex -> ApiClient.unwrap(ex) instanceof ApiException api && api.status() == 404
+                        ? CompletableFuture.completedFuture(null)
+                        : CompletableFuture.failedFuture(ex));
+    }
+
+    // ================= Local apply (before the server answers) =================
+    private static NoteDto localCreate(Long tempId, Map<String, Object> body) {
+        NoteStore store = localStore();
+        NoteDto n = new NoteDto(tempId, (String) body.get("title"), (String) body.get("textHtml"),
+                (String) body.get("drawingJson"), false, false, null, LocalDateTime.now().toString(), null,
+                (String) body.get("tagName"), (String) body.get("tagColor"));
+        if (store != null) store.put(n);
+        return n;
+    }
+
+    /**
+     * The stored note with {@code changes} (PATCH or PUT fields) applied; null if it isn't stored.
+     * Throws {@link DrawingNotApplied} rather than keep the old drawing under the new fields.
+     */
+    private static NoteDto localEdit(Long id, Map<String, Object> changes) {
+        NoteStore store = localStore();
+        NoteDto n = store == null ? null : store.get(id);
+        if (n == null) return null;
+        String drawing = n.drawingJson();
+        if (changes.containsKey("drawingJson")) {
+            drawing = (String) changes.get("drawingJson");
+        } else if (changes.containsKey("drawingAppend")) {
+            try {
+                drawing = StrokeCodec.concat(drawing, (String) changes.get("drawingAppend"));
+            } catch (IOException ex) {
+                throw new DrawingNotApplied(ex);
+            }
+        }
+        NoteDto edited = new NoteDto(n.id(),
+                changes.containsKey("title") ? (String) changes.get("title") : n.title(),
+                changes.containsKey("textHtml") ? (String) changes.get("textHtml") : n.textHtml(),
+                drawing, n.favorite(), n.trashed(), n.deletedAt(), n.createdAt(), n.updatedAt(),
+                changes.containsKey("tagName") ? (String) changes.get("tagName") : n.tagName(),
+                changes.containsKey("tagColor") ? (String) changes.get("tagColor") : n.tagColor());
+        store.put(edited);
+        return edited;
+    }
+
+    /**
+     * The stored note with its flags changed. A note only known from a summary listing (a card on
+     * Trash or Favorites) has its summary changed instead and comes back without a body.
+     */
+    private static NoteDto localFlags(Long id, Boolean favorite, Boolean trashed) {
+        NoteStore store = localStore();
+        if (store == null) return null;
+        NoteDto n = store.get(id);
+        if (n != null) {
+            NoteDto flagged = flagged(n, favorite, trashed);
+            store.put(flagged);
+            return flagged;
+        }
+        NoteSummary s = store.summary(id);
+        if (s == null) return null;
+        NoteDto flagged = flagged(NoteStore.asNote(s), favorite, trashed);
+        store.putSummaries(List.of(NoteSummary.from(flagged)));
+        return flagged;
     }
 
-    public static void deletePermanent(long id) throws Exception {
-        long userId = uid();
-        ApiClient.delete(base(userId) + "/" + id, null);
+    /** {@code n} with the given flags changed; null leaves a flag as it is. */
+    private static NoteDto flagged(NoteDto n, Boolean favorite, Boolean trashed) {
+        boolean t = trashed != null ? trashed : n.trashed();
+        String deletedAt = trashed == null ? n.deletedAt() : (t ? LocalDateTime.now().toString() : null);
+        return new NoteDto(n.id(), n.title(), n.textHtml(), n.drawingJson(),
+                favorite != null ? favorite : n.favorite(), t, deletedAt,
+                n.createdAt(), n.updatedAt(), n.tagName(), n.tagColor());
     }
 
-    private static String encode(String v) {
+    static String encode(String v) {
         return java.net.URLEncoder.encode(v, java.nio.charset.StandardCharsets.UTF_8);
     }
 }
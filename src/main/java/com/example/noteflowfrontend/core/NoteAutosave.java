@@ -0,0 +1,208 @@
+package com.example.noteflowfrontend.core;
+
+import com.example.noteflowfrontend.core.dto.NoteDto;
+import com.example.noteflowfrontend.drawing.Stroke;
+import com.example.noteflowfrontend.drawing.StrokeCodec;
+import javafx.animation.PauseTransition;
+import javafx.util.Duration;
+
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Background saving for the note editor. Edits call {@link #changed()}; once they go quiet for the
+ * debounce delay, the editor's current {@link Draft} is compared with the last one the server
+ * accepted and only the fields that differ are sent, as a PATCH. At most one save is in flight; edits made meanwhile
+ * are picked up by a single follow-up save when it returns.
+ *
+ * Must be used from the JavaFX Application Thread.
+ */
+public class NoteAutosave {
+
+    public enum Field { TITLE, TEXT, DRAWING, TAG_NAME, TAG_COLOR }
+
+    public enum State { SAVED, DIRTY, SAVING, FAILED }
+
+    /** Editor contents at one moment. {@code strokes} is null in text mode, {@code textHtml} in draw mode. */
+    public record Draft(String title, String textHtml, List<Stroke> strokes, String tagName, String tagColor) {
+        public Draft {
+            strokes = strokes == null ? null : List.copyOf(strokes);
+        }
+
+        public String drawingJson() {
+            return strokes == null ? null : StrokeCodec.encode(strokes);
+        }
+
+        /** Fields that differ from {@code base}; everything when there is no base yet. */
+        public Set<Field> changedSince(Draft base) {
+            if (base == null) return EnumSet.allOf(Field.class);
+            Set<Field> out = EnumSet.noneOf(Field.class);
+            if (!Objects.equals(title, base.title)) out.add(Field.TITLE);
+            if (!Objects.equals(textHtml, base.textHtml)) out.add(Field.TEXT);
+            if (!Objects.equals(strokes, base.strokes)) out.add(Field.DRAWING);
+            if (!Objects.equals(tagName, base.tagName)) out.add(Field.TAG_NAME);
+            if (!Objects.equals(tagColor, base.tagColor)) out.add(Field.TAG_COLOR);
+            return out;
+        }
+
+        /**
+         * PATCH body for {@code changed}. When strokes were only added since {@code base}, the
+         * drawing goes as {@code drawingAppend} with just the new strokes.
+         */
+        Map<String, Object> patchSince(Draft base, Set<Field> changed) {
+            Map<String, Object> body = new HashMap<>();
+            if (changed.contains(Field.TITLE)) body.put("title", title);
+            if (changed.contains(Field.TEXT)) body.put("textHtml", textHtml);
+            if (changed.contains(Field.TAG_NAME)) body.put("tagName", tagName);
+            if (changed.contains(Field.TAG_COLOR)) body.put("tagColor", tagColor);
+            if (changed.contains(Field.DRAWING)) {
+                if (isAppendOf(base)) body.put("drawingAppend", StrokeCodec.encode(strokes.subList(base.strokes.size(), strokes.size())));
+                else body.put("drawingJson", drawingJson());
+            }
+            return body;
+        }
+
+        Map<String, Object> fullBody() {
+            Map<String, Object> body = new HashMap<>();
+            body.put("title", title);
+            body.put("textHtml", textHtml);
+            body.put("drawingJson", drawingJson());
+            body.put("tagName", tagName);
+            body.put("tagColor", tagColor);
+            return body;
+        }
+
+        /** Strokes are immutable once committed, so a same-instance prefix means nothing was undone or cleared. */
+        private boolean isAppendOf(Draft base) {
+            if (strokes == null || base == null || base.strokes == null || base.strokes.isEmpty()
+                    || strokes.size() <= base.strokes.size()) return false;
+            for (int i = 0; i < base.strokes.size(); i++) {
+                if (strokes.get(i) != base.strokes.get(i)) return false;
+            }
+            return true;
+        }
+
+        boolean isBlank() {
+            return (title == null || title.isBlank())
+                    && (textHtml == null || textHtml.replaceAll("<[^>]*>", "").isBlank())
+                    && (strokes == null || strokes.isEmpty());
+        }
+    }
+
+    private final Supplier<Draft> snapshot;
+    private final PauseTransition debounce;
+    private Long noteId;
+    private Draft synced;
+    private CompletableFuture<NoteDto> inFlight;
+    private CompletableFuture<NoteDto> followUp; // edits made while inFlight was out
+    private State state = State.SAVED;
+    private boolean held;
+    private Consumer<State> onState = s -> {};
+    private Consumer<NoteDto> onSaved = n -> {};
+
+    public NoteAutosave(Supplier<Draft> snapshot, Duration delay) {
+        this.snapshot = snapshot;
+        this.debounce = new PauseTransition(delay);
+        this.debounce.setOnFinished(e -> flush());
+    }
+
+    public void setOnState(Consumer<State> onState) { this.onState = onState; }
+
+    /** Called after every successful save, with the server's copy of the note. */
+    public void setOnSaved(Consumer<NoteDto> onSaved) { this.onSaved = onSaved; }
+
+    public Long noteId() { return noteId; }
+
+    public State state() { return state; }
+
+    /** Declares what the server currently holds, e.g. right after a note was loaded. */
+    public void setBase(Long noteId, Draft synced) {
+        this.noteId = noteId;
+        this.synced = synced;
+        this.held = false;
+        setState(State.SAVED);
+    }
+
+    /**
+     * Saves nothing until the next {@link #setBase}, e.g. while the note body is still loading and
+     * the editor doesn't yet know what the server has.
+     */
+    public void hold() {
+        held = true;
+        debounce.stop();
+    }
+
+    /** Something in the editor changed; a save follows once edits pause. */
+    public void changed() {
+        if (held) return;
+        if (state != State.SAVING) setState(State.DIRTY);
+        debounce.playFromStart();
+    }
+
+    /**
+     * Saves now instead of waiting for the debounce. Completes with the saved note, or with null
+     * when there was nothing to send.
+     */
+    public CompletableFuture<NoteDto> flush() {
+        debounce.stop();
+        if (held) return CompletableFuture.completedFuture(null);
+        if (inFlight != null) {
+            if (followUp == null) followUp = new CompletableFuture<>();
+            return followUp;
+        }
+
+        Draft draft = snapshot.get();
+        Set<Field> changed = draft.changedSince(synced);
+        if (changed.isEmpty() || (noteId == null && draft.isBlank())) {
+            setState(State.SAVED);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        setState(State.SAVING);
+        CompletableFuture<NoteDto> request = send(draft, changed);
+        inFlight = request;
+        request.whenCompleteAsync((n, ex) -> {
+            inFlight = null;
+            CompletableFuture<NoteDto> waiting = followUp;
+            followUp = null;
+            if (ex != null) {
+                System.err.println("Autosave failed: " + ApiClient.unwrap(ex).getMessage());
+                setState(State.FAILED);
+                if (waiting != null) waiting.completeExceptionally(ex);
+                return;
+            }
+            noteId = n.id();
+            synced = draft;
+            onSaved.accept(n);
+            if (waiting != null) {
+                flush().whenComplete((next, ex2) -> {
+                    if (ex2 != null) waiting.completeExceptionally(ex2);
+                    else waiting.complete(next != null ? next : n);
+                });
+            } else {
+                setState(draft.changedSince(snapshot.get()).isEmpty() ? State.SAVED : State.DIRTY);
+            }
+        }, ApiClient.FX);
+        return request;
+    }
+
+    private CompletableFuture<NoteDto> send(Draft draft, Set<Field> changed) {
+        if (noteId == null) {
+            return NoteApi.create(draft.title(), draft.textHtml(), draft.drawingJson(), draft.tagName(), draft.tagColor());
+        }
+        return NoteApi.patch(noteId, draft.patchSince(synced, changed), draft::fullBody);
+    }
+
+    private void setState(State s) {
+        if (state == s) return;
+        state = s;
+        onState.accept(s);
+    }
+}
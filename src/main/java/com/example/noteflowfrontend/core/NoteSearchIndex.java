@@ -0,0 +1,185 @@
+package com.example.noteflowfrontend.core;
+
+import com.example.noteflowfrontend.core.dto.NoteDto;
+
+import java.util.*;
+
+/**
+ * In-memory inverted index over note titles and text. {@link NoteStore} keeps it current as notes
+ * are stored, changed or removed, so searching never touches the notes themselves.
+ *
+ * Text is indexed without its HTML markup, split on anything that isn't a letter or digit and
+ * lower-cased. Every query word is a prefix match ("mee" finds "meeting") and all words must
+ * match. Results are ranked by term frequency, with title hits counting {@value #TITLE_WEIGHT}x.
+ */
+public class NoteSearchIndex {
+    private static final int TITLE_WEIGHT = 3;
+
+    // term -> (note id -> weighted frequency), sorted so a prefix is one contiguous range
+    private final TreeMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private final Map<Long, Set<String>> termsByNote = new HashMap<>();
+
+    // ================= Updates =================
+    public synchronized void index(NoteDto note) {
+        if (note == null || note.id() == null) return;
+        remove(note.id());
+        Map<String, Integer> freq = termFrequencies(note);
+        if (freq.isEmpty()) return;
+        for (Map.Entry<String, Integer> e : freq.entrySet()) {
+            postings.computeIfAbsent(e.getKey(), k -> new HashMap<>()).put(note.id(), e.getValue());
+        }
+        termsByNote.put(note.id(), freq.keySet());
+    }
+
+    public synchronized void remove(long id) {
+        Set<String> terms = termsByNote.remove(id);
+        if (terms == null) return;
+        for (String t : terms) {
+            Map<Long, Integer> docs = postings.get(t);
+            if (docs == null) continue;
+            docs.remove(id);
+            if (docs.isEmpty()) postings.remove(t);
+        }
+    }
+
+    public synchronized void clear() {
+        postings.clear();
+        termsByNote.clear();
+    }
+
+    // ================= Queries =================
+    /** Matching note ids, best first, with their scores. A blank query returns an empty map. */
+    public synchronized LinkedHashMap<Long, Integer> search(String query) {
+        List<String> words = tokenize(query);
+        LinkedHashMap<Long, Integer> out = new LinkedHashMap<>();
+        if (words.isEmpty()) return out;
+
+        // Longest word first: it is usually the most selective, and later words only score its candidates
+        words.sort(Comparator.comparingInt(String::length).reversed());
+        Map<Long, Integer> scores = null;
+        for (String w : words) {
+            Map<Long, Integer> hits = new HashMap<>();
+            for (Map<Long, Integer> docs : postings.subMap(w, true, w + Character.MAX_VALUE, false).values()) {
+                for (Map.Entry<Long, Integer> d : docs.entrySet()) {
+                    if (scores == null || scores.containsKey(d.getKey())) hits.merge(d.getKey(), d.getValue(), Integer::sum);
+                }
+            }
+            if (scores != null) {
+                for (Map.Entry<Long, Integer> h : hits.entrySet()) h.setValue(h.getValue() + scores.get(h.getKey()));
+            }
+            scores = hits;
+            if (scores.isEmpty()) return out;
+        }
+
+        List<Map.Entry<Long, Integer>> ranked = new ArrayList<>(scores.entrySet());
+        ranked.sort(Map.Entry.<Long, Integer>comparingByValue().reversed());
+        for (Map.Entry<Long, Integer> e : ranked) out.put(e.getKey(), e.getValue());
+        return out;
+    }
+
+    /** Same matching rules for one note that isn't (yet) in an index, e.g. while a list is streaming in. */
+    public static boolean matches(NoteDto note, String query) {
+        List<String> words = tokenize(query);
+        if (words.isEmpty()) return true;
+        Set<String> terms = termFrequencies(note).keySet();
+        for (String w : words) {
+            boolean found = false;
+            for (String t : terms) {
+                if (t.startsWith(w)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) return false;
+        }
+        return true;
+    }
+
+    // ================= Text =================
+    private static Map<String, Integer> termFrequencies(NoteDto note) {
+        Map<String, Integer> freq = new HashMap<>();
+        for (String t : tokenize(note.title())) freq.merge(t, TITLE_WEIGHT, Integer::sum);
+        for (String t : tokenize(stripHtml(note.textHtml()))) freq.merge(t, 1, Integer::sum);
+        return freq;
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> out = new ArrayList<>();
+        if (text == null) return out;
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < text.length(); ) {
+            int cp = text.codePointAt(i);
+            if (Character.isLetterOrDigit(cp)) {
+                word.appendCodePoint(Character.toLowerCase(cp));
+            } else if (word.length() > 0) {
+                out.add(word.toString());
+                word.setLength(0);
+            }
+            i += Character.charCount(cp);
+        }
+        if (word.length() > 0) out.add(word.toString());
+        return out;
+    }
+
+    /** Visible text of an HTML fragment: tags, comments and script/style bodies are dropped, common entities decoded. */
+    static String stripHtml(String html) {
+        if (html == null || html.isEmpty()) return "";
+        StringBuilder out = new StringBuilder(html.length());
+        int i = 0, n = html.length();
+        while (i < n) {
+            char c = html.charAt(i);
+            if (c == '<') {
+                if (html.startsWith("<!--", i)) {
+                    int end = html.indexOf("-->", i + 4);
+                    i = end < 0 ? n : end + 3;
+                    continue;
+                }
+                int end = html.indexOf('>', i + 1);
+                if (end < 0) break;
+                String tag = html.substring(i + 1, Math.min(end, i + 8)).toLowerCase(Locale.ROOT);
+                i = end + 1;
+                if (tag.startsWith("script") || tag.startsWith("style")) {
+                    int close = html.toLowerCase(Locale.ROOT).indexOf("</" + (tag.startsWith("script") ? "script" : "style"), i);
+                    i = close < 0 ? n : close;
+                }
+                out.append(' ');
+            } else if (c == '&') {
+                int semi = html.indexOf(';', i);
+                if (semi > i && semi - i <= 8) {
+                    out.append(entity(html.substring(i + 1, semi)));
+                    i = semi + 1;
+                } else {
+                    out.append(c);
+                    i++;
+                }
+            } else {
+                out.append(c);
+                i++;
+            }
+        }
+        return out.toString();
+    }
+
+    private static String entity(String name) {
+        return switch (name) {
+            case "amp" -> "&";
+            case "lt" -> "<";
+            case "gt" -> ">";
+            case "quot" -> "\"";
+            case "apos", "#39" -> "'";
+            default -> {
+                if (name.startsWith("#")) {
+                    try {
+                        int cp = name.startsWith("#x") || name.startsWith("#X")
+                                ? Integer.parseInt(name.substring(2), 16)
+                                : Integer.parseInt(name.substring(1));
+                        yield new String(Character.toChars(cp));
+                    } catch (IllegalArgumentException ignored) {
+                        // fall through to a plain separator
+                    }
+                }
+                yield " ";
+            }
+        };
+    }
+}
@@ -0,0 +1,357 @@
+package com.example.noteflowfrontend.core;
+
+import com.example.noteflowfrontend.core.dto.NoteDto;
+import com.example.noteflowfrontend.core.dto.NoteSummary;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Predicate;
+
+/**
+ * Disk-backed copy of the user's notes, so list pages can render before the network answers
+ * (or when the backend is down).
+ *
+ * Storage is an append-only JSON-lines log under {@code ~/.noteflow}: each line is either a full
+ * note or a {@code {"deletedId": n}} tombstone, and the last line for an id wins. The log is
+ * rewritten from memory once dead lines outnumber live ones. A {@code {"cursor": "..."}} line
+ * records the delta-sync high-water mark, see {@link NoteSync}. Reads and writes work on memory;
+ * the log is written behind them by a background writer, in order.
+ *
+ * Summary listings (Favorites, Trash) are also kept, in memory only, so those pages can paint
+ * notes whose full body was never fetched.
+ */
+public class NoteStore {
+    private static final Path DIR = Path.of(System.getProperty("user.home"), ".noteflow");
+    private static final ObjectMapper M = JacksonConfig.getObjectMapper();
+    /** Log appends and rewrites, in order and off the caller's thread (often the FX thread). */
+    private static final Executor WRITER = Tasks.serial();
+
+    private static NoteStore current;
+
+    private final long userId;
+    private final Path file;
+    private final Map<Long, NoteDto> notes = new LinkedHashMap<>();
+    private final Map<Long, NoteSummary> summaries = new LinkedHashMap<>();
+    private final NoteSearchIndex index = new NoteSearchIndex();
+    private final List<Object> pending = new ArrayList<>();
+    private String cursor;
+    private int logLines;
+
+    private NoteStore(long userId) {
+        this.userId = userId;
+        this.file = DIR.resolve("notes-" + userId + ".log");
+        load();
+    }
+
+    /** The store for {@code userId}, opening (and replaying) its log on first use. */
+    public static synchronized NoteStore forUser(long userId) {
+        if (current == null || current.userId != userId) {
+            // Let earlier writes land first, in case this user's log is among them
+            CompletableFuture.runAsync(() -> {}, WRITER).join();
+            current = new NoteStore(userId);
+        }
+        return current;
+    }
+
+    // ================= Reads =================
+    public synchronized List<NoteDto> all() {
+        return new ArrayList<>(notes.values());
+    }
+
+    public synchronized List<NoteDto> query(Predicate<NoteDto> filter) {
+        List<NoteDto> out = new ArrayList<>();
+        for (NoteDto n : notes.values()) if (filter.test(n)) out.add(n);
+        return out;
+    }
+
+    /**
+     * Cards for everything known to match {@code filter}: listed summaries, with the stored full
+     * note standing in wherever there is one, then stored notes that no listing has mentioned.
+     */
+    public synchronized List<NoteSummary> summaries(Predicate<NoteDto> filter) {
+        List<NoteSummary> out = new ArrayList<>();
+        for (NoteSummary s : summaries.values()) {
+            NoteDto full = notes.get(s.id());
+            if (full != null) {
+                if (filter.test(full)) out.add(NoteSummary.from(full));
+            } else if (filter.test(asNote(s))) {
+                out.add(s);
+            }
+        }
+        for (NoteDto n : notes.values()) {
+            if (!summaries.containsKey(n.id()) && filter.test(n)) out.add(NoteSummary.from(n));
+        }
+        return out;
+    }
+
+    public synchronized NoteDto get(long id) {
+        return notes.get(id);
+    }
+
+    /** The last listed summary for {@code id}; null if no listing has mentioned it. */
+    public synchronized NoteSummary summary(long id) {
+        return summaries.get(id);
+    }
+
+    /** Full-text index over the stored notes, kept in step with every write. */
+    public NoteSearchIndex index() {
+        return index;
+    }
+
+    public synchronized boolean isEmpty() {
+        return notes.isEmpty();
+    }
+
+    /** Delta-sync position: a server cursor, or the newest {@code updatedAt} seen. Null until the first sync. */
+    public synchronized String cursor() {
+        return cursor;
+    }
+
+    public synchronized String maxUpdatedAt() {
+        String max = null;
+        for (NoteDto n : notes.values()) {
+            if (n.updatedAt() != null && (max == null || n.updatedAt().compareTo(max) > 0)) max = n.updatedAt();
+        }
+        return max;
+    }
+
+    // ================= Writes =================
+    public synchronized void put(NoteDto note) {
+        if (note == null || note.id() == null) return;
+        if (upsert(note)) flush();
+    }
+
+    public synchronized void putAll(Collection<NoteDto> fresh) {
+        boolean changed = false;
+        for (NoteDto n : fresh) changed |= upsert(n);
+        if (changed) flush();
+    }
+
+    /**
+     * Treats {@code fresh} as the server's complete answer for everything matching {@code scope}:
+     * stored notes in that scope which are missing from it are dropped, the rest are upserted.
+     * Notes with local changes the server hasn't seen yet are left alone.
+     */
+    public void replace(Predicate<NoteDto> scope, Collection<NoteDto> fresh) {
+        // Asked before taking this lock: the Outbox calls into the store while holding its own
+        Set<Long> unsent = Outbox.unsentNotes();
+        synchronized (this) {
+            Set<Long> keep = new HashSet<>();
+            for (NoteDto n : fresh) if (n.id() != null) keep.add(n.id());
+
+            List<Long> gone = new ArrayList<>();
+            for (NoteDto n : notes.values()) {
+                if (scope.test(n) && !keep.contains(n.id()) && !isLocalOnly(n.id(), unsent)) gone.add(n.id());
+            }
+            for (Long id : gone) {
+                notes.remove(id);
+                index.remove(id);
+                pending.add(Map.of("deletedId", id));
+            }
+            for (NoteDto n : fresh) if (n.id() != null && !isLocalOnly(n.id(), unsent)) upsert(n);
+            flush();
+        }
+    }
+
+    /**
+     * Like {@link #replace} for a summary listing: drops notes in {@code scope} that the server no
+     * longer lists, and notes whose stored body is older than the summary (they are fetched again on open).
+     * The summaries themselves are kept for {@link #summaries}.
+     */
+    public void reconcile(Predicate<NoteDto> scope, Collection<NoteSummary> fresh) {
+        Set<Long> unsent = Outbox.unsentNotes();
+        synchronized (this) {
+            Map<Long, String> listed = new HashMap<>();
+            for (NoteSummary s : fresh) if (s.id() != null) listed.put(s.id(), s.updatedAt());
+
+            summaries.values().removeIf(s -> scope.test(asNote(s)) && !listed.containsKey(s.id())
+                    && !isLocalOnly(s.id(), unsent));
+            for (NoteSummary s : fresh) {
+                if (s.id() != null && !isLocalOnly(s.id(), unsent)) summaries.put(s.id(), s);
+            }
+
+            List<Long> gone = new ArrayList<>();
+            for (NoteDto n : notes.values()) {
+                if (isLocalOnly(n.id(), unsent)) continue;
+                boolean missing = scope.test(n) && !listed.containsKey(n.id());
+                boolean stale = listed.containsKey(n.id()) && isOlder(n.updatedAt(), listed.get(n.id()));
+                if (missing || stale) gone.add(n.id());
+            }
+            for (Long id : gone) {
+                notes.remove(id);
+                index.remove(id);
+                pending.add(Map.of("deletedId", id));
+            }
+            flush();
+        }
+    }
+
+    /** Updates listed summaries, e.g. when a note that isn't stored is flagged locally. */
+    public synchronized void putSummaries(Collection<NoteSummary> changed) {
+        for (NoteSummary s : changed) if (s.id() != null) summaries.put(s.id(), s);
+    }
+
+    public synchronized void remove(long id) {
+        summaries.remove(id);
+        if (notes.remove(id) != null) {
+            index.remove(id);
+            pending.add(Map.of("deletedId", id));
+            flush();
+        }
+    }
+
+    public synchronized void removeAll(Collection<Long> ids) {
+        for (Long id : ids) {
+            summaries.remove(id);
+            if (notes.remove(id) != null) {
+                index.remove(id);
+                pending.add(Map.of("deletedId", id));
+            }
+        }
+        flush();
+    }
+
+    /** Applies one delta-sync page and advances the cursor in the same log write. */
+    public synchronized void apply(Collection<NoteDto> changed, Collection<Long> deleted, String newCursor) {
+        for (Long id : deleted) {
+            summaries.remove(id);
+            if (notes.remove(id) != null) {
+                index.remove(id);
+                pending.add(Map.of("deletedId", id));
+            }
+        }
+        for (NoteDto n : changed) upsert(n);
+        if (newCursor != null && !newCursor.equals(cursor)) {
+            cursor = newCursor;
+            pending.add(Map.of("cursor", newCursor));
+        }
+        flush();
+    }
+
+    private boolean upsert(NoteDto note) {
+        if (note.id() == null) return false;
+        NoteDto existing = notes.get(note.id());
+        if (existing != null) {
+            if (existing.equals(note) || isOlder(note.updatedAt(), existing.updatedAt())) return false;
+        }
+        notes.put(note.id(), note);
+        index.index(note);
+        pending.add(note);
+        return true;
+    }
+
+    /** A body-less note carrying {@code s}'s fields, for testing scope predicates against a summary. */
+    static NoteDto asNote(NoteSummary s) {
+        return new NoteDto(s.id(), s.title(), null, s.hasDrawing() ? "" : null, s.favorite(), s.trashed(),
+                s.deletedAt(), s.createdAt(), s.updatedAt(), s.tagName(), s.tagColor());
+    }
+
+    /**
+     * Notes created offline (negative ids) and notes with writes still in the Outbox: a listing
+     * doesn't know about these changes yet, so it must neither drop nor overwrite them.
+     */
+    private static boolean isLocalOnly(long id, Set<Long> unsent) {
+        return id < 0 || unsent.contains(id);
+    }
+
+    /** ISO-8601 timestamps from the backend sort lexicographically. */
+    private static boolean isOlder(String candidate, String stored) {
+        return candidate != null && stored != null && candidate.compareTo(stored) < 0;
+    }
+
+    // ================= Log =================
+    private void load() {
+        if (!Files.exists(file)) return;
+        try {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                if (line.isBlank()) continue;
+                logLines++;
+                try {
+                    JsonNode node = M.readTree(line);
+                    if (node.has("deletedId")) {
+                        notes.remove(node.get("deletedId").asLong());
+                    } else if (node.has("cursor")) {
+                        cursor = node.get("cursor").asText();
+                    } else {
+                        NoteDto n = M.treeToValue(node, NoteDto.class);
+                        if (n.id() != null) notes.put(n.id(), n);
+                    }
+                } catch (IOException badLine) {
+                    // a torn last write only loses that one record
+                }
+            }
+        } catch (IOException ex) {
+            System.err.println("NoteStore: failed to read " + file + ": " + ex.getMessage());
+        }
+        for (NoteDto n : notes.values()) index.index(n);
+    }
+
+    /**
+     * Hands everything queued by the current operation to the writer as one append, then compacts
+     * if needed. Memory is already up to date, so callers never wait for the disk.
+     */
+    private void flush() {
+        if (pending.isEmpty()) return;
+        List<Object> records = List.copyOf(pending);
+        pending.clear();
+        logLines += records.size();
+        WRITER.execute(() -> append(records));
+        maybeCompact();
+    }
+
+    private void append(List<Object> records) {
+        try {
+            Files.createDirectories(DIR);
+            try (BufferedWriter w = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (Object record : records) {
+                    w.write(M.writeValueAsString(record));
+                    w.newLine();
+                }
+            }
+        } catch (IOException ex) {
+            System.err.println("NoteStore: failed to append to " + file + ": " + ex.getMessage());
+        }
+    }
+
+    private void maybeCompact() {
+        if (logLines <= 2 * notes.size() + 64) return;
+        List<NoteDto> snapshot = List.copyOf(notes.values());
+        String at = cursor;
+        logLines = snapshot.size() + (at == null ? 0 : 1);
+        WRITER.execute(() -> rewrite(snapshot, at));
+    }
+
+    /** Replaces the log with one line per note; runs on the writer, after every append queued before it. */
+    private void rewrite(List<NoteDto> snapshot, String at) {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (BufferedWriter w = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            if (at != null) {
+                w.write(M.writeValueAsString(Map.of("cursor", at)));
+                w.newLine();
+            }
+            for (NoteDto n : snapshot) {
+                w.write(M.writeValueAsString(n));
+                w.newLine();
+            }
+        } catch (IOException ex) {
+            System.err.println("NoteStore: compaction failed: " + ex.getMessage());
+            return;
+        }
+        try {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            System.err.println("NoteStore: compaction failed: " + ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.noteflowfrontend.core;
+
+import com.example.noteflowfrontend.core.dto.NoteChangesDto;
+import com.example.noteflowfrontend.core.dto.NoteDto;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Incremental refresh of the notes list. Instead of re-downloading every note, asks
+ * {@code GET /users/{id}/notes/changes?since=<cursor>} for notes changed or deleted since the
+ * last sync and merges them into the {@link NoteStore}. The cursor is whatever the server hands
+ * back, or the newest {@code updatedAt} seen when it doesn't. Servers without the endpoint get
+ * the full list instead, and we stop asking for the rest of the session.
+ */
+public class NoteSync {
+
+    private static volatile boolean unsupported;
+
+    /** True when {@link #sync()} can run as a delta: the store has a baseline and the server hasn't refused. */
+    public static boolean isWarm() {
+        NoteStore store = NoteApi.localStore();
+        return !unsupported && store != null && !store.isEmpty();
+    }
+
+    /** Brings the local store up to date and returns the active (non-trashed) notes. */
+    public static CompletableFuture<List<NoteDto>> sync() {
+        return NoteApi.uid().thenCompose(userId -> {
+            NoteStore store = NoteStore.forUser(userId);
+            String since = store.cursor() != null ? store.cursor() : store.maxUpdatedAt();
+            if (unsupported || since == null) return fullSync(store);
+
+            String path = NoteApi.base(userId) + "/changes?since=" + NoteApi.encode(since);
+            return ApiClient.getAsync(path, NoteChangesDto.class)
+                    .thenApply(changes -> {
+                        List<NoteDto> changed = (changes == null || changes.notes() == null) ? List.of() : changes.notes();
+                        List<Long> deleted = (changes == null || changes.deleted() == null) ? List.of() : changes.deleted();
+                        String next = (changes != null && changes.cursor() != null) ? changes.cursor() : newest(since, changed);
+                        store.apply(changed, deleted, next);
+                        return store.query(NoteApi.ACTIVE);
+                    })
+                    .exceptionallyCompose(ex -> {
+                        if (ApiClient.unwrap(ex) instanceof ApiException api && api.isUnsupported()) {
+                            unsupported = true;
+                            return fullSync(store);
+                        }
+                        return CompletableFuture.failedFuture(ex);
+                    });
+        });
+    }
+
+    private static CompletableFuture<List<NoteDto>> fullSync(NoteStore store) {
+        return NoteApi.list().thenApply(list -> {
+            if (!unsupported) store.apply(List.of(), List.of(), store.maxUpdatedAt());
+            return list;
+        });
+    }
+
+    private static String newest(String since, List<NoteDto> changed) {
+        String max = since;
+        for (NoteDto n : changed) {
+            if (n.updatedAt() != null && n.updatedAt().compareTo(max) > 0) max = n.updatedAt();
+        }
+        return max;
+    }
+}
@@ -0,0 +1,693 @@
+package com.example.noteflowfrontend.core;
+
+import com.example.noteflowfrontend.core.dto.NoteDto;
+import com.example.noteflowfrontend.core.dto.ToDoListDto;
+import com.example.noteflowfrontend.drawing.StrokeCodec;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiFunction;
+
+/**
+ * Durable queue for note and to-do writes, so edits made while the backend is unreachable are kept
+ * and sent later instead of failing.
+ *
+ * Every write is appended to a per-user JSON-lines journal under {@code ~/.noteflow} and applied to
+ * the local copy (the {@link NoteStore}, or the cached to-do list) before anything is sent; the
+ * journal is written by a background writer, so submitting never waits for the disk. One
+ * {@link Tasks} service task sends the journal in order, a request at a time, and acknowledges each with a
+ * {@code {"done": seq}} line. While the server can't be reached, callers get the locally applied
+ * result and the worker retries with backoff; a write that had nothing to apply locally fails
+ * instead and is dropped from the queue. Consecutive writes to the same note or task that are
+ * still waiting are merged, so an outage of edits goes out as one request per entity.
+ *
+ * Notes and tasks created offline get a negative id until the server assigns the real one; later
+ * writes that still use the temporary id are sent with the real one.
+ *
+ * Before a queued note write is replayed after an outage the server's copy is checked: if it was
+ * changed elsewhere after our write was made, the later {@code updatedAt} wins and ours is dropped.
+ * Writes the server rejects outright are dropped and the local copy is fetched again. So are
+ * creates that may have reached the server without an answer coming back, since sending them again
+ * could save them twice.
+ */
+public class Outbox {
+    static final String NOTE_CREATE = "note.create";
+    static final String NOTE_PATCH = "note.patch";
+    static final String NOTE_PUT = "note.put";
+    static final String NOTE_FAVORITE = "note.favorite";
+    static final String NOTE_TRASH = "note.trash";
+    static final String NOTE_BATCH = "note.batch";
+    static final String TODO_CREATE = "todo.create";
+    static final String TODO_UPDATE = "todo.update";
+    static final String TODO_DELETE = "todo.delete";
+
+    private static final Set<String> CONFLICT_CHECKED = Set.of(NOTE_PATCH, NOTE_PUT, NOTE_FAVORITE, NOTE_TRASH);
+
+    private static final Path DIR = Path.of(System.getProperty("user.home"), ".noteflow");
+    private static final ObjectMapper M = JacksonConfig.getObjectMapper();
+    private static final long MIN_RETRY_MS = 2_000;
+    private static final long MAX_RETRY_MS = 30_000;
+    private static final long SEND_TIMEOUT_SECONDS = 60;
+    private static final int MAX_SERVER_ERRORS = 5;
+    /** Journal appends and rewrites, in order and off the caller's thread. */
+    private static final Executor journal = Tasks.serial();
+
+    /** One queued write. {@code base} is the note's updatedAt when it was made, {@code at} the local time. */
+    static final class Op {
+        final long seq;
+        String kind;
+        final Long target;
+        Map<String, Object> body;
+        String base;
+        String at;
+        boolean deferred; // waited out an outage, so the server may have moved on meanwhile
+        int serverErrors;
+        final List<Waiter> waiters = new ArrayList<>();
+
+        Op(long seq, String kind, Long target, Map<String, Object> body) {
+            this.seq = seq;
+            this.kind = kind;
+            this.target = target;
+            this.body = body;
+        }
+    }
+
+    /** A caller of {@link #submit}, with the locally applied result it gets if the server can't be reached. */
+    private record Waiter(CompletableFuture<Object> future, Object local, boolean hasLocal) {}
+
+    private static Long userId;
+    private static Path file;
+    private static final LinkedList<Op> queue = new LinkedList<>();
+    private static final Map<Long, Long> realIds = new HashMap<>();
+    private static long lastSeq;
+    private static int logLines;
+    private static Op sending;
+    private static long retryAt;
+    private static long retryDelay = MIN_RETRY_MS;
+    private static CompletableFuture<Void> worker;
+    private static volatile Thread workerThread;
+
+    private Outbox() {}
+
+    /**
+     * Applies a write locally with {@code local} (given the entity id, temporary for creates, and
+     * the write's body), then journals and queues it for sending. Completes with the server's answer,
+     * or with the local result when the server can't be reached; fails if the server rejects it, or
+     * at once, with nothing queued, if {@code local} throws.
+     */
+    static <T> CompletableFuture<T> submit(String kind, Long target, Map<String, Object> body, Class<T> type,
+                                           BiFunction<Long, Map<String, Object>, T> local) {
+        Long uid = JwtUtil.extractUserIdFromBearer();
+        if (uid == null) {
+            // Nobody to journal for; send it straight away
+            Op op = new Op(0, kind, target, body);
+            return NoteApi.uid().thenCompose(u -> send(op, u, target)).thenApply(type::cast);
+        }
+
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        synchronized (Outbox.class) {
+            open(uid);
+            Long id = target == null ? null : resolve(target);
+            // Applied before anything is queued, so a write that can't be applied locally is never sent
+            T value;
+            try {
+                value = local.apply(isCreate(kind) ? Long.valueOf(-(lastSeq + 1)) : id, body);
+            } catch (RuntimeException ex) {
+                return CompletableFuture.failedFuture(ex);
+            }
+            Op op = absorb(kind, id, body);
+            if (op == null) {
+                long seq = ++lastSeq;
+                op = new Op(seq, kind, isCreate(kind) ? Long.valueOf(-seq) : id, body);
+                op.base = baseOf(uid, op);
+                queue.add(op);
+            } else if (op.seq < 0) {
+                // The write cancelled out a queued create; nothing is left to send
+                return CompletableFuture.completedFuture(value);
+            }
+            op.at = OffsetDateTime.now().toString();
+            append(Map.of("op", record(op)));
+
+            boolean hasLocal = value != null || type == Void.class;
+            if (hasLocal && retryAt > System.currentTimeMillis()) {
+                // Still waiting out an outage: don't make the caller wait for the next attempt too
+                op.deferred = true;
+                result.complete(value);
+            } else {
+                op.waiters.add(new Waiter(result, value, hasLocal));
+            }
+            ensureWorker();
+            wake();
+        }
+        return result.thenApply(type::cast);
+    }
+
+    /** Picks up the signed-in user's journal, e.g. after login, and sends whatever it still holds. */
+    public static synchronized void resume() {
+        Long uid = JwtUtil.extractUserIdFromBearer();
+        if (uid == null) return;
+        open(uid);
+        retryAt = 0;
+        retryDelay = MIN_RETRY_MS;
+        if (!queue.isEmpty()) ensureWorker();
+        wake();
+    }
+
+    /** Writes waiting to be sent for the signed-in user. */
+    public static synchronized int pending() {
+        return queue.size();
+    }
+
+    /** Ids of notes with writes still queued (by real id where the server has assigned one). */
+    static synchronized Set<Long> unsentNotes() {
+        Set<Long> ids = new HashSet<>();
+        for (Op op : queue) {
+            if (NOTE_BATCH.equals(op.kind)) {
+                for (Object o : (List<?>) op.body.get("ids")) ids.add(resolve(((Number) o).longValue()));
+            } else if (op.kind.startsWith("note.") && op.target != null) {
+                ids.add(resolve(op.target));
+            }
+        }
+        return ids;
+    }
+
+    /** The server id for {@code id} once a note or task created offline has been saved; {@code id} otherwise. */
+    static synchronized Long resolve(Long id) {
+        if (id == null || id >= 0) return id;
+        return realIds.getOrDefault(id, id);
+    }
+
+    private static boolean isCreate(String kind) {
+        return NOTE_CREATE.equals(kind) || TODO_CREATE.equals(kind);
+    }
+
+    private static String baseOf(long uid, Op op) {
+        if (!op.kind.startsWith("note.") || op.target == null || op.target < 0) return null;
+        NoteDto stored = NoteStore.forUser(uid).get(op.target);
+        return stored == null ? null : stored.updatedAt();
+    }
+
+    // ================= Merging =================
+
+    /** How a write combines with the op queued before it. */
+    enum Merge { NONE, MERGED, CANCELS }
+
+    /**
+     * Folds the write into the last queued op when that one targets the same entity and hasn't
+     * gone out yet. Returns that op, an op with a negative seq when the two cancel out, or null.
+     */
+    private static Op absorb(String kind, Long id, Map<String, Object> body) {
+        Op tail = queue.peekLast();
+        if (tail == null || tail == sending || id == null || !id.equals(tail.target)) return null;
+        return switch (merge(tail, kind, body)) {
+            case NONE -> null;
+            case MERGED -> tail;
+            case CANCELS -> {
+                queue.removeLast();
+                append(Map.of("done", tail.seq));
+                for (Waiter w : tail.waiters) w.future().complete(w.local());
+                yield new Op(-1, kind, id, null);
+            }
+        };
+    }
+
+    /**
+     * Whether a {@code kind} write with {@code body} to {@code tail}'s entity can be folded into
+     * {@code tail}. On {@link Merge#MERGED} {@code tail} has been changed to carry both; otherwise
+     * it is left as it was. {@link Merge#CANCELS} means neither needs sending (a task created and
+     * deleted while offline).
+     */
+    static Merge merge(Op tail, String kind, Map<String, Object> body) {
+        if (kind.startsWith("note.") != tail.kind.startsWith("note.")) return Merge.NONE;
+
+        switch (kind) {
+            case NOTE_FAVORITE, NOTE_TRASH -> {
+                if (!kind.equals(tail.kind)) return Merge.NONE;
+                tail.body = body;
+            }
+            case NOTE_PATCH -> {
+                if (!Set.of(NOTE_CREATE, NOTE_PATCH, NOTE_PUT).contains(tail.kind)) return Merge.NONE;
+                Map<String, Object> merged = new HashMap<>(tail.body);
+                if (!mergeChanges(merged, body)) return Merge.NONE;
+                tail.body = merged;
+            }
+            case NOTE_PUT -> {
+                if (NOTE_PATCH.equals(tail.kind) || NOTE_PUT.equals(tail.kind)) {
+                    tail.kind = NOTE_PUT;
+                    tail.body = body;
+                } else if (NOTE_CREATE.equals(tail.kind)) {
+                    tail.body.putAll(body);
+                } else {
+                    return Merge.NONE;
+                }
+            }
+            case TODO_UPDATE -> {
+                if (!TODO_CREATE.equals(tail.kind) && !TODO_UPDATE.equals(tail.kind)) return Merge.NONE;
+                Map<String, Object> merged = new HashMap<>(body);
+                if (TODO_CREATE.equals(tail.kind)) merged.remove("taskId");
+                tail.body = merged;
+            }
+            case TODO_DELETE -> {
+                if (TODO_UPDATE.equals(tail.kind)) {
+                    tail.kind = TODO_DELETE;
+                    tail.body = null;
+                } else if (TODO_CREATE.equals(tail.kind)) {
+                    return Merge.CANCELS;
+                } else {
+                    return Merge.NONE;
+                }
+            }
+            default -> {
+                return Merge.NONE;
+            }
+        }
+        return Merge.MERGED;
+    }
+
+    /** Applies PATCH {@code changes} on top of {@code into}; false if their drawings can't be combined. */
+    private static boolean mergeChanges(Map<String, Object> into, Map<String, Object> changes) {
+        // Join the drawings first, so a failure leaves {@code into} untouched
+        String key = into.containsKey("drawingJson") ? "drawingJson" : "drawingAppend";
+        String joined = null;
+        if (changes.containsKey("drawingAppend")) {
+            try {
+                joined = StrokeCodec.concat((String) into.get(key), (String) changes.get("drawingAppend"));
+            } catch (IOException ex) {
+                return false;
+            }
+        }
+        for (Map.Entry<String, Object> e : changes.entrySet()) {
+            if ("drawingAppend".equals(e.getKey())) continue;
+            if ("drawingJson".equals(e.getKey())) into.remove("drawingAppend");
+            into.put(e.getKey(), e.getValue());
+        }
+        if (joined != null) into.put(key, joined);
+        return true;
+    }
+
+    // ================= Sending =================
+
+    private static void ensureWorker() {
+        if (worker != null) return;
+        CompletableFuture<Void> task = Tasks.run(Tasks.Priority.SERVICE, Outbox::run);
+        worker = task;
+        task.whenComplete((v, ex) -> {
+            if (ex != null && !task.isCancelled()) System.err.println("Outbox: sender stopped: " + ex);
+            synchronized (Outbox.class) {
+                // Lets the next submit or resume() start a new one
+                if (worker == task) {
+                    worker = null;
+                    workerThread = null;
+                }
+            }
+        });
+    }
+
+    /** Wakes the worker to look at the queue again. */
+    private static void wake() {
+        Thread t = workerThread;
+        if (t != null) LockSupport.unpark(t);
+    }
+
+    /** Stops sending, e.g. on logout. What is queued stays in the journal for the next {@link #resume}. */
+    public static synchronized void stop() {
+        if (worker != null) worker.cancel(true);
+        worker = null;
+        workerThread = null;
+        sending = null;
+    }
+
+    private static void run() {
+        workerThread = Thread.currentThread();
+        while (true) {
+            Op op;
+            long uid;
+            Long target;
+            long wait;
+            synchronized (Outbox.class) {
+                wait = untilNext();
+                if (wait == 0) {
+                    op = queue.getFirst();
+                    uid = userId;
+                    target = resolve(op.target);
+                    sending = op;
+                } else {
+                    op = null;
+                    uid = 0;
+                    target = null;
+                }
+            }
+            if (op == null) {
+                // Parked outside the lock; wake() or the timeout brings it back
+                if (wait < 0) LockSupport.park();
+                else LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(wait));
+                if (Thread.interrupted()) return;
+                continue;
+            }
+
+            Object result = null;
+            Throwable failure = null;
+            try {
+                result = replay(op, uid, target).get(SEND_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+                failure = ApiClient.unwrap(e.getCause());
+            } catch (TimeoutException e) {
+                failure = e;
+            } catch (InterruptedException e) {
+                synchronized (Outbox.class) {
+                    if (sending == op) sending = null;
+                }
+                return;
+            }
+
+            synchronized (Outbox.class) {
+                if (sending == op) sending = null;
+                if (failure == null) delivered(op, uid, result);
+                else if (shouldHold(op, failure)) holdAll(failure);
+                else rejected(op, uid, failure);
+            }
+        }
+    }
+
+    /**
+     * Milliseconds until the head of the queue may go out: 0 now, -1 not before something is queued.
+     * It waits for the backoff to pass and for its owner to be the signed-in user.
+     */
+    private static long untilNext() {
+        if (queue.isEmpty()) return -1;
+        long now = System.currentTimeMillis();
+        if (now < retryAt) return retryAt - now;
+        if (!Objects.equals(JwtUtil.extractUserIdFromBearer(), userId)) return 1_000; // signed out; resume() picks it up again
+        return 0;
+    }
+
+    private static CompletableFuture<Object> replay(Op op, long uid, Long target) {
+        if (target != null && target < 0 && !isCreate(op.kind)) {
+            return CompletableFuture.failedFuture(new IllegalStateException("It was created offline and never saved."));
+        }
+        if (op.deferred && CONFLICT_CHECKED.contains(op.kind)) {
+            return NoteApi.fetch(uid, target).thenCompose(server -> {
+                if (server != null && isNewer(server.updatedAt(), op)) {
+                    System.err.println("Outbox: note " + target + " changed on the server after this edit; keeping the server copy");
+                    NoteStore.forUser(uid).put(server);
+                    return CompletableFuture.<Object>completedFuture(server);
+                }
+                return send(op, uid, target);
+            });
+        }
+        return send(op, uid, target);
+    }
+
+    private static CompletableFuture<Object> send(Op op, long uid, Long target) {
+        CompletableFuture<?> f = switch (op.kind) {
+            case NOTE_CREATE -> NoteApi.sendCreate(uid, op.body);
+            case NOTE_PATCH -> NoteApi.sendPatch(uid, target, op.body);
+            case NOTE_PUT -> NoteApi.sendPut(uid, target, op.body);
+            case NOTE_FAVORITE -> NoteApi.sendFlag(uid, target, "favorite", (Boolean) op.body.get("value"));
+            case NOTE_TRASH -> NoteApi.sendFlag(uid, target, "trash", (Boolean) op.body.get("value"));
+            case NOTE_BATCH -> NoteApi.sendBatch(uid, op.body);
+            case TODO_CREATE -> TodoApi.sendCreate(op.body);
+            case TODO_UPDATE -> TodoApi.sendUpdate(target, op.body);
+            case TODO_DELETE -> TodoApi.sendDelete(uid, target);
+            default -> CompletableFuture.failedFuture(new IllegalStateException("Unknown outbox op " + op.kind));
+        };
+        return f.thenApply(r -> r);
+    }
+
+    /** True when the server's copy was written after our queued edit was made (and isn't the copy it was based on). */
+    private static boolean isNewer(String serverUpdatedAt, Op op) {
+        if (serverUpdatedAt == null || serverUpdatedAt.equals(op.base)) return false;
+        Instant server = instant(serverUpdatedAt);
+        Instant ours = instant(op.at);
+        return server != null && ours != null && server.isAfter(ours);
+    }
+
+    /** Timestamps with an offset, or local ones as the backend sends them. */
+    private static Instant instant(String ts) {
+        if (ts == null) return null;
+        try {
+            return OffsetDateTime.parse(ts).toInstant();
+        } catch (DateTimeParseException notOffset) {
+            try {
+                return LocalDateTime.parse(ts).atZone(ZoneId.systemDefault()).toInstant();
+            } catch (DateTimeParseException ignored) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Whether a failed op stays at the head of the queue to be sent again. A create that may already
+     * have reached the server isn't: POSTing it again could make a second copy. A server error is
+     * tried {@value #MAX_SERVER_ERRORS} times, so one write the server can't handle doesn't hold up
+     * everything queued behind it.
+     */
+    private static boolean shouldHold(Op op, Throwable t) {
+        if (isCreate(op.kind) && mayHaveArrived(t)) return false;
+        // Once the op has drawn a server error, the endpoint's breaker opening is more of the same
+        boolean serverError = (t instanceof ApiException api && api.status() >= 500)
+                || (t instanceof CircuitOpenException && op.serverErrors > 0);
+        if (serverError) return ++op.serverErrors < MAX_SERVER_ERRORS;
+        return isOffline(t);
+    }
+
+    private static boolean isOffline(Throwable t) {
+        return t instanceof NetworkException || t instanceof CircuitOpenException || t instanceof TimeoutException
+                || (t instanceof ApiException api && api.isTransient());
+    }
+
+    /** The request went out but no answer came back, or the server failed while handling it. */
+    private static boolean mayHaveArrived(Throwable t) {
+        return t instanceof TimeoutException || (t instanceof NetworkException n && !n.isNotSent())
+                || (t instanceof ApiException api && api.status() >= 500);
+    }
+
+    // ================= Outcomes =================
+
+    private static void delivered(Op op, long uid, Object result) {
+        queue.remove(op);
+        retryDelay = MIN_RETRY_MS;
+        if (isCreate(op.kind) && result != null) {
+            Long real = NOTE_CREATE.equals(op.kind) ? ((NoteDto) result).id()
+                    : ((ToDoListDto) result).getTaskId();
+            if (real != null) {
+                realIds.put(op.target, real);
+                append(Map.of("tempId", op.target, "id", real));
+                if (NOTE_CREATE.equals(op.kind)) NoteStore.forUser(uid).remove(op.target);
+                else TodoApi.uncache(op.target);
+            }
+        }
+        append(Map.of("done", op.seq));
+        for (Waiter w : op.waiters) w.future().complete(result);
+        op.waiters.clear();
+        maybeCompact();
+    }
+
+    /** Nothing can go out before the head does, so every waiting caller gets its local result now. */
+    private static void holdAll(Throwable cause) {
+        long wait = retryDelay;
+        if (cause instanceof CircuitOpenException open) wait = Math.max(wait, open.retryIn().toMillis());
+        retryAt = System.currentTimeMillis() + wait;
+        retryDelay = Math.min(MAX_RETRY_MS, retryDelay * 2);
+
+        boolean announced = false;
+        for (Iterator<Op> it = queue.iterator(); it.hasNext(); ) {
+            Op op = it.next();
+            op.deferred = true;
+            boolean anyLocal = op.waiters.isEmpty();
+            for (Waiter w : op.waiters) {
+                if (w.hasLocal()) w.future().complete(w.local());
+                else w.future().completeExceptionally(cause);
+                anyLocal |= w.hasLocal();
+                announced = true;
+            }
+            op.waiters.clear();
+            if (!anyLocal) {
+                // Every caller was told it failed and nothing was applied locally; sending it later would surprise them
+                it.remove();
+                append(Map.of("done", op.seq));
+            }
+        }
+        if (announced) {
+            System.err.println("Outbox: " + queue.size() + " change(s) saved locally, sending when the server is back ("
+                    + cause.getMessage() + ")");
+        }
+    }
+
+    private static void rejected(Op op, long uid, Throwable cause) {
+        queue.remove(op);
+        append(Map.of("done", op.seq));
+        System.err.println("Outbox: dropped " + op.kind + " for " + op.target + ": " + cause.getMessage());
+        for (Waiter w : op.waiters) w.future().completeExceptionally(cause);
+        op.waiters.clear();
+
+        // Put the local copy back in line with the server
+        if (NOTE_CREATE.equals(op.kind)) {
+            NoteStore.forUser(uid).remove(op.target);
+        } else if (TODO_CREATE.equals(op.kind)) {
+            TodoApi.uncache(op.target);
+        } else if (NOTE_BATCH.equals(op.kind)) {
+            List<Long> ids = new ArrayList<>();
+            for (Object o : (List<?>) op.body.get("ids")) ids.add(resolve(((Number) o).longValue()));
+            NoteApi.refetch(uid, ids.stream().filter(id -> id >= 0).toList());
+        } else if (op.kind.startsWith("note.") && op.target != null && op.target >= 0) {
+            long id = op.target;
+            NoteApi.fetch(uid, id).thenAccept(server -> {
+                if (server == null) NoteStore.forUser(uid).remove(id);
+            });
+        }
+        maybeCompact();
+    }
+
+    // ================= Journal =================
+
+    private static void open(long uid) {
+        if (userId != null && userId == uid) return;
+        // Let earlier journal writes land first, in case this user's journal is among them
+        CompletableFuture.runAsync(() -> {}, journal).join();
+        for (Op op : queue) {
+            for (Waiter w : op.waiters) w.future().complete(w.local());
+        }
+        queue.clear();
+        realIds.clear();
+        lastSeq = 0;
+        logLines = 0;
+        retryAt = 0;
+        userId = uid;
+        file = DIR.resolve("outbox-" + uid + ".log");
+        load();
+    }
+
+    private static void load() {
+        if (!Files.exists(file)) return;
+        Map<Long, Op> ops = new LinkedHashMap<>();
+        try {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                if (line.isBlank()) continue;
+                logLines++;
+                try {
+                    JsonNode node = M.readTree(line);
+                    if (node.has("done")) {
+                        ops.remove(node.get("done").asLong());
+                    } else if (node.has("tempId")) {
+                        realIds.put(node.get("tempId").asLong(), node.get("id").asLong());
+                    } else if (node.has("op")) {
+                        Op op = read(node.get("op"));
+                        ops.put(op.seq, op);
+                        lastSeq = Math.max(lastSeq, op.seq);
+                    }
+                } catch (IOException | RuntimeException badLine) {
+                    // a torn last write only loses that one record
+                }
+            }
+        } catch (IOException ex) {
+            System.err.println("Outbox: failed to read " + file + ": " + ex.getMessage());
+        }
+        ops.values().stream().sorted((a, b) -> Long.compare(a.seq, b.seq)).forEach(queue::add);
+        for (Long tempId : realIds.keySet()) lastSeq = Math.max(lastSeq, -tempId); // keep temporary ids unique
+    }
+
+    private static Map<String, Object> record(Op op) {
+        Map<String, Object> r = new LinkedHashMap<>();
+        r.put("seq", op.seq);
+        r.put("kind", op.kind);
+        r.put("target", op.target);
+        r.put("body", op.body == null ? null : new HashMap<>(op.body)); // a later merge may change op.body
+        r.put("base", op.base);
+        r.put("at", op.at);
+        return r;
+    }
+
+    private static Op read(JsonNode node) throws IOException {
+        JsonNode target = node.get("target");
+        JsonNode body = node.get("body");
+        Op op = new Op(node.get("seq").asLong(), node.get("kind").asText(),
+                target == null || target.isNull() ? null : target.asLong(),
+                body == null || body.isNull() ? null : M.convertValue(body, new TypeReference<HashMap<String, Object>>() {}));
+        op.base = text(node.get("base"));
+        op.at = text(node.get("at"));
+        op.deferred = true; // written in an earlier session, so the server may have changed since
+        return op;
+    }
+
+    private static String text(JsonNode n) {
+        return n == null || n.isNull() ? null : n.asText();
+    }
+
+    /** Queues {@code line} for the journal; the writer appends it after everything queued before. */
+    private static void append(Map<String, Object> line) {
+        Path to = file;
+        logLines++;
+        journal.execute(() -> write(to, List.of(line), true));
+    }
+
+    /** Empties the journal once everything is acknowledged, or rewrites it once dead lines dominate. */
+    private static void maybeCompact() {
+        Path to = file;
+        if (queue.isEmpty()) {
+            logLines = 0;
+            journal.execute(() -> {
+                try {
+                    Files.deleteIfExists(to);
+                } catch (IOException ex) {
+                    System.err.println("Outbox: compaction failed: " + ex.getMessage());
+                }
+            });
+            return;
+        }
+        if (logLines <= 2 * queue.size() + 64) return;
+        List<Map<String, Object>> lines = new ArrayList<>();
+        for (Map.Entry<Long, Long> e : realIds.entrySet()) lines.add(Map.of("tempId", e.getKey(), "id", e.getValue()));
+        for (Op op : queue) lines.add(Map.of("op", record(op)));
+        logLines = lines.size();
+        journal.execute(() -> write(to, lines, false));
+    }
+
+    /** Appends {@code lines} to the journal at {@code to}, or replaces it with them. Runs on the writer. */
+    private static void write(Path to, List<Map<String, Object>> lines, boolean append) {
+        try {
+            Files.createDirectories(DIR);
+            Path target = append ? to : to.resolveSibling(to.getFileName() + ".tmp");
+            try (BufferedWriter w = append
+                    ? Files.newBufferedWriter(target, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND)
+                    : Files.newBufferedWriter(target, StandardCharsets.UTF_8)) {
+                for (Map<String, Object> line : lines) {
+                    w.write(M.writeValueAsString(line));
+                    w.newLine();
+                }
+            }
+            if (!append) Files.move(target, to, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            System.err.println("Outbox: failed to write " + to + ": " + ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.noteflowfrontend.core;
+
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Low-priority background loads that warm the local caches before the user asks for the data,
+ * e.g. the lists behind the other sidebar sections, or a note body while its card is hovered.
+ *
+ * Tasks run one at a time, drained by a single {@link Tasks.Priority#BACKGROUND} task that ends
+ * when the queue is empty, and only once no other request has been on the wire for
+ * {@value #IDLE_MILLIS} ms, so a prefetch never competes with something the user is waiting for.
+ * The queue is bounded: newer tasks go first and the oldest are dropped when it is full. Failures
+ * are ignored; the page will load the data itself when it is opened.
+ */
+public class Prefetcher {
+    private static final int MAX_QUEUED = 16;
+    private static final long IDLE_MILLIS = 250;
+    private static final long TASK_TIMEOUT_SECONDS = 20;
+
+    private record Task(String key, Supplier<CompletableFuture<?>> load) {}
+
+    private static final LinkedList<Task> queue = new LinkedList<>();
+    private static final Set<String> queuedKeys = new HashSet<>();
+    private static boolean draining;
+
+    /** Queues {@code load} unless a task with the same key is already waiting. */
+    public static synchronized void enqueue(String key, Supplier<CompletableFuture<?>> load) {
+        if (!queuedKeys.add(key)) return;
+        queue.addFirst(new Task(key, load));
+        while (queue.size() > MAX_QUEUED) queuedKeys.remove(queue.removeLast().key());
+        if (!draining) {
+            draining = true;
+            Tasks.run(Tasks.Priority.BACKGROUND, Prefetcher::drain);
+        }
+    }
+
+    /** Drops everything still queued, e.g. on logout. */
+    public static synchronized void clear() {
+        queue.clear();
+        queuedKeys.clear();
+    }
+
+    private static void drain() {
+        while (true) {
+            try {
+                awaitIdle();
+                Task task = next();
+                if (task == null) return;
+                task.load().get().get(TASK_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                synchronized (Prefetcher.class) {
+                    draining = false;
+                }
+                return;
+            } catch (Exception e) {
+                // Best effort only
+            }
+        }
+    }
+
+    /** The newest queued task, or null (and the drain ends) once there is none. */
+    private static synchronized Task next() {
+        if (queue.isEmpty()) {
+            draining = false;
+            return null;
+        }
+        Task task = queue.removeFirst();
+        queuedKeys.remove(task.key());
+        return task;
+    }
+
+    /** Blocks until the network has been quiet for {@link #IDLE_MILLIS}. */
+    private static void awaitIdle() throws InterruptedException {
+        long quietSince = System.currentTimeMillis();
+        while (System.currentTimeMillis() - quietSince < IDLE_MILLIS) {
+            Thread.sleep(50);
+            if (ApiClient.inFlight() > 0) quietSince = System.currentTimeMillis();
+        }
+    }
+}
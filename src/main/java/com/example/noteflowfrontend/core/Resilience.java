@@ -0,0 +1,149 @@
+package com.example.noteflowfrontend.core;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Retry and circuit-breaker policy around every {@link ApiClient} exchange.
+ *
+ * Transient failures (connection errors, timeouts, 408/425/429/5xx) are retried up to
+ * {@value #MAX_ATTEMPTS} times with exponential backoff and full jitter, or after the server's
+ * {@code Retry-After} when it is longer. Only idempotent methods are retried, except that any
+ * request whose connection was never made is safe to send again. A response that can't be
+ * parsed fails at once: asking again would get the same body.
+ *
+ * Each endpoint (method plus path, with ids collapsed) has a breaker: after
+ * {@value #TRIP_AFTER} transient failures in a row it opens, and calls fail at once with
+ * {@link CircuitOpenException} instead of adding load to a struggling server. After a cool-down
+ * one trial call is let through; its success closes the breaker, its failure doubles the cool-down.
+ */
+class Resilience {
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long BASE_DELAY_MS = 250;
+    private static final long MAX_DELAY_MS = 4_000;
+    private static final long MAX_RETRY_AFTER_MS = 10_000; // longer hints aren't waited out inline
+    private static final int TRIP_AFTER = 5;
+    private static final long MIN_OPEN_MS = 5_000;
+    private static final long MAX_OPEN_MS = 60_000;
+    private static final Set<String> IDEMPOTENT = Set.of("GET", "HEAD", "PUT", "DELETE", "OPTIONS");
+
+    private static final Map<String, Breaker> breakers = new ConcurrentHashMap<>();
+
+    private Resilience() {}
+
+    static <T> CompletableFuture<T> call(String method, String path, Supplier<CompletableFuture<T>> attempt) {
+        return call(method, path, attempt, () -> true);
+    }
+
+    /**
+     * Runs {@code attempt} under the policy. {@code mayRetry} can veto a retry, e.g. once part of a
+     * streamed body has already been handed on.
+     */
+    static <T> CompletableFuture<T> call(String method, String path, Supplier<CompletableFuture<T>> attempt,
+                                         BooleanSupplier mayRetry) {
+        Breaker breaker = breakers.computeIfAbsent(method + " " + endpoint(path), k -> new Breaker());
+        CompletableFuture<T> result = new CompletableFuture<>();
+        run(method, breaker, attempt, mayRetry, 1, result);
+        return result;
+    }
+
+    private static <T> void run(String method, Breaker breaker, Supplier<CompletableFuture<T>> attempt,
+                                BooleanSupplier mayRetry, int attemptNo, CompletableFuture<T> result) {
+        long wait = breaker.acquire();
+        if (wait > 0) {
+            result.completeExceptionally(new CircuitOpenException(Duration.ofMillis(wait)));
+            return;
+        }
+        CompletableFuture<T> f;
+        try {
+            f = attempt.get();
+        } catch (RuntimeException ex) {
+            f = CompletableFuture.failedFuture(ex);
+        }
+        f.whenComplete((value, ex) -> {
+            if (ex == null) {
+                breaker.success();
+                result.complete(value);
+                return;
+            }
+            Throwable cause = ApiClient.unwrap(ex);
+            if (!isTransient(cause)) {
+                breaker.success(); // the server answered; it's the request that was wrong
+                result.completeExceptionally(cause);
+                return;
+            }
+            Duration hint = cause instanceof ApiException api ? api.retryAfter() : null;
+            breaker.failure(hint);
+
+            boolean safe = IDEMPOTENT.contains(method) || (cause instanceof NetworkException n && n.isNotSent());
+            long delay = backoff(attemptNo, hint);
+            if (!safe || attemptNo >= MAX_ATTEMPTS || delay < 0 || !mayRetry.getAsBoolean()) {
+                result.completeExceptionally(cause);
+                return;
+            }
+            CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS)
+                    .execute(() -> run(method, breaker, attempt, mayRetry, attemptNo + 1, result));
+        });
+    }
+
+    private static boolean isTransient(Throwable t) {
+        return t instanceof NetworkException || (t instanceof ApiException api && api.isTransient());
+    }
+
+    /** Full-jitter exponential delay, stretched to the server's Retry-After; -1 if that is too long to wait. */
+    private static long backoff(int attemptNo, Duration retryAfter) {
+        long cap = Math.min(MAX_DELAY_MS, BASE_DELAY_MS << (attemptNo - 1));
+        long delay = ThreadLocalRandom.current().nextLong(cap + 1);
+        if (retryAfter != null) {
+            if (retryAfter.toMillis() > MAX_RETRY_AFTER_MS) return -1;
+            delay = Math.max(delay, retryAfter.toMillis());
+        }
+        return delay;
+    }
+
+    /** "/users/7/notes/42?fields=summary" -> "/users/{id}/notes/{id}" */
+    static String endpoint(String path) {
+        int q = path.indexOf('?');
+        String p = q < 0 ? path : path.substring(0, q);
+        return p.replaceAll("/\\d+(?=/|$)", "/{id}");
+    }
+
+    private static final class Breaker {
+        private int failures;
+        private long openUntil;
+        private long openFor = MIN_OPEN_MS;
+        private boolean trialOut;
+
+        /** 0 if a call may go out now, otherwise how long until the next trial. */
+        synchronized long acquire() {
+            long now = System.currentTimeMillis();
+            if (failures < TRIP_AFTER) return 0;
+            if (now < openUntil) return openUntil - now;
+            if (trialOut) return Math.max(1, MIN_OPEN_MS / 5); // half-open: one trial at a time
+            trialOut = true;
+            return 0;
+        }
+
+        synchronized void success() {
+            failures = 0;
+            openFor = MIN_OPEN_MS;
+            trialOut = false;
+        }
+
+        synchronized void failure(Duration retryAfter) {
+            failures++;
+            if (failures < TRIP_AFTER) return;
+            if (trialOut) openFor = Math.min(MAX_OPEN_MS, openFor * 2);
+            trialOut = false;
+            long hint = retryAfter == null ? 0 : retryAfter.toMillis();
+            openUntil = System.currentTimeMillis() + Math.max(openFor, Math.min(hint, MAX_OPEN_MS));
+        }
+    }
+}
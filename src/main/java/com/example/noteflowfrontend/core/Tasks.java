@@ -0,0 +1,168 @@
+package com.example.noteflowfrontend.core;
+
+import javafx.scene.Node;
+
+import java.util.ArrayDeque;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * The one place blocking work (login, weather, ...) is run off the FX thread, instead of each page
+ * starting its own threads.
+ *
+ * Every task gets a virtual thread, so waiting on I/O costs no platform thread, while each
+ * {@link Priority} has a fixed number of permits that bounds how many of its tasks run at once.
+ * Pages run their work through a {@link Scope} tied to their root node: when the node leaves the
+ * scene the scope's tasks are interrupted and their FX callbacks are skipped.
+ */
+public final class Tasks {
+
+    public enum Priority {
+        /** Something the user is waiting for. */
+        INTERACTIVE(32),
+        /** Nice-to-have work; only a couple at a time so it never crowds out the above. */
+        BACKGROUND(2),
+        /** Long-lived loops, such as the outbox sender, that spend most of their time parked. */
+        SERVICE(4);
+
+        private final Semaphore permits;
+
+        Priority(int concurrency) {
+            this.permits = new Semaphore(concurrency, true);
+        }
+    }
+
+    private static final ExecutorService VIRTUAL =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("task-", 0).factory());
+
+    private Tasks() {}
+
+    /** Runs {@code work} once a permit of {@code priority} is free. Cancelling the future interrupts it. */
+    public static <T> CompletableFuture<T> submit(Priority priority, Callable<T> work) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> running = VIRTUAL.submit(() -> {
+            try {
+                priority.permits.acquire();
+            } catch (InterruptedException e) {
+                result.cancel(false);
+                return;
+            }
+            try {
+                if (!result.isDone()) result.complete(work.call());
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            } finally {
+                priority.permits.release();
+            }
+        });
+        result.whenComplete((v, ex) -> {
+            if (result.isCancelled()) running.cancel(true);
+        });
+        return result;
+    }
+
+    public static CompletableFuture<Void> run(Priority priority, Runnable work) {
+        return submit(priority, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * An executor that runs what it is given one at a time, in submission order, on a virtual
+     * thread, for writes such as log appends that must not overtake each other. It holds no lane
+     * permit, so a slow disk never waits behind network tasks or the other way round. Virtual
+     * threads don't keep the JVM alive, so on exit it is given a moment to finish what is queued.
+     */
+    public static Executor serial() {
+        Serial serial = new Serial();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                CompletableFuture.runAsync(() -> {}, serial).get(2, TimeUnit.SECONDS);
+            } catch (Exception ex) {
+                System.err.println("Tasks: queued writes may be lost: " + ex);
+            }
+        }, "serial-drain"));
+        return serial;
+    }
+
+    private static final class Serial implements Executor {
+        private final ArrayDeque<Runnable> queue = new ArrayDeque<>();
+        private boolean draining;
+
+        @Override
+        public void execute(Runnable work) {
+            synchronized (this) {
+                queue.add(work);
+                if (draining) return;
+                draining = true;
+            }
+            VIRTUAL.execute(this::drain);
+        }
+
+        private void drain() {
+            while (true) {
+                Runnable next;
+                synchronized (this) {
+                    next = queue.poll();
+                    if (next == null) {
+                        draining = false;
+                        return;
+                    }
+                }
+                try {
+                    next.run();
+                } catch (RuntimeException ex) {
+                    System.err.println("Tasks: serial task failed: " + ex);
+                }
+            }
+        }
+    }
+
+    /** A scope that cancels its tasks when {@code owner} is taken out of the scene. */
+    public static Scope scope(Node owner) {
+        Scope scope = new Scope();
+        owner.sceneProperty().addListener((o, was, now) -> {
+            if (was != null && now == null) scope.cancelAll();
+        });
+        return scope;
+    }
+
+    /** Tasks started by one page, cancelled together. Can be used again after {@link #cancelAll}. */
+    public static final class Scope {
+        private final Set<CompletableFuture<?>> live = ConcurrentHashMap.newKeySet();
+
+        public <T> CompletableFuture<T> submit(Priority priority, Callable<T> work) {
+            CompletableFuture<T> f = Tasks.submit(priority, work);
+            live.add(f);
+            f.whenComplete((v, ex) -> live.remove(f));
+            return f;
+        }
+
+        /**
+         * Runs {@code work} as an interactive task, then {@code onFx} with its result or failure on
+         * the FX thread, unless the scope was cancelled meanwhile.
+         */
+        public <T> CompletableFuture<T> run(Callable<T> work, BiConsumer<? super T, ? super Throwable> onFx) {
+            CompletableFuture<T> f = submit(Priority.INTERACTIVE, work);
+            f.whenCompleteAsync((v, ex) -> {
+                if (!f.isCancelled()) onFx.accept(v, ex == null ? null : ApiClient.unwrap(ex));
+            }, ApiClient.FX);
+            return f;
+        }
+
+        /** Interrupts everything still running or waiting for a permit. */
+        public void cancelAll() {
+            for (CompletableFuture<?> f : live) f.cancel(true);
+        }
+    }
+}
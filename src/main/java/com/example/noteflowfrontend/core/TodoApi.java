@@ -3,58 +3,133 @@ package com.example.noteflowfrontend.core;
 import com.example.noteflowfrontend.core.dto.ToDoListDto;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 public class TodoApi {
 
     private static final String BASE = "/todo";
 
+    // Last list fetched for the signed-in user, so the To-Do page can paint before it revalidates
+    private static volatile List<ToDoListDto> lastList = List.of();
+
     /** Resolve userId directly from JWT or fallback /me */
-    private static long uid() throws Exception {
+    private static CompletableFuture<Long> uid() {
         Long fromJwt = JwtUtil.extractUserIdFromBearer();
-        if (fromJwt != null) return fromJwt;
+        if (fromJwt != null) return CompletableFuture.completedFuture(fromJwt);
 
-        Map<?, ?> me = ApiClient.get("/me", Map.class);
-        Object id = (me == null) ? null : me.get("id");
-        if (id == null) throw new IllegalStateException("Unable to resolve user id from JWT or /me");
-        return Long.parseLong(String.valueOf(id));
+        return ApiClient.getAsync("/me", Map.class).thenApply(me -> {
+            Object id = (me == null) ? null : me.get("id");
+            if (id == null) throw new IllegalStateException("Unable to resolve user id from JWT or /me");
+            return Long.parseLong(String.valueOf(id));
+        });
     }
 
     /** Get all tasks for the current user */
-    public static List<ToDoListDto> list() throws Exception {
-        long userId = uid();
-        ToDoListDto[] arr = ApiClient.get(BASE + "/user/" + userId, ToDoListDto[].class);
-        return Arrays.asList(arr);
+    public static CompletableFuture<List<ToDoListDto>> list() {
+        return uid().thenCompose(userId -> ApiClient.getAsync(BASE + "/user/" + userId, ToDoListDto[].class))
+                .thenApply(arr -> {
+                    List<ToDoListDto> tasks = arr == null ? List.of() : Collections.unmodifiableList(Arrays.asList(arr));
+                    lastList = tasks;
+                    return tasks;
+                });
+    }
+
+    /** Tasks from the last {@link #list()}; empty before the first one. */
+    public static List<ToDoListDto> cached() {
+        return lastList;
+    }
+
+    public static void clearCache() {
+        lastList = List.of();
     }
 
+    // Writes go through the Outbox: applied to the cached list at once, sent in order, and kept for
+    // later if the server can't be reached.
+
     /** Create a new task */
-    public static ToDoListDto create(String taskName, String status, String importance,
-                                     LocalDateTime startDate, LocalDateTime endDate) throws Exception {
-        long userId = uid(); // get current user
-        Map<String, Object> body = new HashMap<>();
-        body.put("taskName", taskName);
-        body.put("status", status);
-        body.put("taskImportance", importance);
-        body.put("startDate", startDate != null ? startDate.toString() : null);
-        body.put("endDate", endDate != null ? endDate.toString() : null);
+    public static CompletableFuture<ToDoListDto> create(String taskName, String status, String importance,
+                                                        LocalDateTime startDate, LocalDateTime endDate) {
+        return uid().thenCompose(userId -> {
+            Map<String, Object> body = new HashMap<>();
+            body.put("taskName", taskName);
+            body.put("status", status);
+            body.put("startDate", startDate);
+            body.put("endDate", endDate);
+            body.put("taskImportance", importance);
+            body.put("user", Map.of("userId", userId));
+            return Outbox.submit(Outbox.TODO_CREATE, null, body, ToDoListDto.class, (tempId, b) ->
+                    cache(new ToDoListDto(tempId, taskName, status, startDate, endDate, importance, userId)));
+        });
+    }
+
+    public static CompletableFuture<ToDoListDto> update(ToDoListDto dto) {
+        return uid().thenCompose(userId -> {
+            Map<String, Object> body = new HashMap<>();
+            body.put("taskId", dto.getTaskId());
+            body.put("taskName", dto.getTaskName());
+            body.put("status", dto.getStatus());
+            body.put("startDate", dto.getStartDate());
+            body.put("endDate", dto.getEndDate());
+            body.put("taskImportance", dto.getTaskImportance());
+            body.put("user", Map.of("userId", userId));
+            return Outbox.submit(Outbox.TODO_UPDATE, dto.getTaskId(), body, ToDoListDto.class, (id, b) -> cache(dto));
+        });
+    }
+
+    /** Delete a task */
+    public static CompletableFuture<Void> delete(Long taskId) {
+        return Outbox.submit(Outbox.TODO_DELETE, taskId, null, Void.class, (id, b) -> {
+            uncache(id);
+            return null;
+        });
+    }
 
-        // append userId as query param
-        return ApiClient.post(BASE + "?userId=" + userId, body, ToDoListDto.class);
+    // ================= Wire calls (sent by the Outbox) =================
+    static CompletableFuture<ToDoListDto> sendCreate(Map<String, Object> body) {
+        return ApiClient.postAsync(BASE, body, ToDoListDto.class).thenApply(TodoApi::cache);
     }
 
+    static CompletableFuture<ToDoListDto> sendUpdate(long taskId, Map<String, Object> body) {
+        Map<String, Object> withId = new HashMap<>(body);
+        withId.put("taskId", taskId); // many APIs require the id in the body too
+        return ApiClient.putAsync(BASE + "/" + taskId, withId, ToDoListDto.class).thenApply(TodoApi::cache);
+    }
 
-    public static ToDoListDto update(ToDoListDto dto) throws Exception {
-        long userId = uid();
-        return ApiClient.put(BASE + "/" + dto.getTaskId() + "?userId=" + userId, dto, ToDoListDto.class);
+    static CompletableFuture<Void> sendDelete(long userId, long taskId) {
+        return ApiClient.deleteAsync(BASE + "/" + taskId + "?userId=" + userId, Void.class);
     }
 
+    // ================= Cached list =================
+    /** Puts {@code task} into the cached list in place of the entry with its id, or first if it is new. */
+    private static synchronized ToDoListDto cache(ToDoListDto task) {
+        if (task == null) return null;
+        List<ToDoListDto> next = new ArrayList<>(lastList);
+        int i = indexOf(next, task.getTaskId());
+        if (i >= 0) next.set(i, task);
+        else next.add(0, task);
+        lastList = next;
+        return task;
+    }
 
+    static synchronized void uncache(Long taskId) {
+        List<ToDoListDto> next = new ArrayList<>(lastList);
+        int i = indexOf(next, taskId);
+        if (i < 0) return;
+        next.remove(i);
+        lastList = next;
+    }
 
-    /** Delete a task */
-    public static void delete(Long taskId) throws Exception {
-        ApiClient.delete(BASE + "/" + taskId, Void.class);
+    private static int indexOf(List<ToDoListDto> tasks, Long taskId) {
+        for (int i = 0; i < tasks.size(); i++) {
+            if (Objects.equals(tasks.get(i).getTaskId(), taskId)) return i;
+        }
+        return -1;
     }
 }
@@ -0,0 +1,104 @@
+package com.example.noteflowfrontend.core;
+
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The one {@link HttpClient} every part of the app talks through, so connections (and their TLS
+ * handshakes) are reused and HTTP/2 can multiplex concurrent requests over one of them.
+ *
+ * How it is built comes from a {@link Profile}, read from system properties by default and
+ * replaceable with {@link #configure} before the first request.
+ */
+public class Transport {
+
+    /**
+     * @param version           preferred protocol; HTTP/2 falls back to HTTP/1.1 when the server can't do it
+     * @param connectTimeout    limit for opening a connection
+     * @param requestTimeout    limit for a response to start arriving
+     * @param threads           size of each of the two bounded pools: the client's own, and the one
+     *                          responses are parsed on
+     * @param connectionPool    HTTP/1.1 keep-alive connections kept per client
+     */
+    public record Profile(HttpClient.Version version, Duration connectTimeout, Duration requestTimeout,
+                          int threads, int connectionPool) {
+
+        public static final Profile DEFAULT = new Profile(HttpClient.Version.HTTP_2,
+                Duration.ofSeconds(5), Duration.ofSeconds(30), 8, 16);
+
+        /** {@link #DEFAULT}, with any {@code noteflow.http.*} system property applied. */
+        public static Profile fromSystemProperties() {
+            return new Profile(
+                    Boolean.parseBoolean(System.getProperty("noteflow.http.http2", "true"))
+                            ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1,
+                    Duration.ofMillis(Long.getLong("noteflow.http.connectTimeoutMs", DEFAULT.connectTimeout.toMillis())),
+                    Duration.ofMillis(Long.getLong("noteflow.http.requestTimeoutMs", DEFAULT.requestTimeout.toMillis())),
+                    Integer.getInteger("noteflow.http.threads", DEFAULT.threads),
+                    Integer.getInteger("noteflow.http.connectionPool", DEFAULT.connectionPool));
+        }
+    }
+
+    private static Profile profile = Profile.fromSystemProperties();
+    private static HttpClient client;
+    private static ExecutorService workers;
+
+    /** Replaces the profile; only possible before anything has been sent. */
+    public static synchronized void configure(Profile next) {
+        if (client != null) throw new IllegalStateException("Transport is already in use");
+        profile = next;
+    }
+
+    public static synchronized Profile profile() {
+        return profile;
+    }
+
+    public static synchronized HttpClient client() {
+        if (client == null) {
+            // Read by the JDK client implementation when the first client is created
+            if (System.getProperty("jdk.httpclient.connectionPoolSize") == null) {
+                System.setProperty("jdk.httpclient.connectionPoolSize", String.valueOf(profile.connectionPool()));
+            }
+            client = HttpClient.newBuilder()
+                    .version(profile.version())
+                    .connectTimeout(profile.connectTimeout())
+                    .followRedirects(HttpClient.Redirect.NORMAL)
+                    .cookieHandler(new CookieManager())
+                    .executor(pool("http-", profile.threads()))
+                    .build();
+        }
+        return client;
+    }
+
+    /**
+     * Bounded pool for reading and parsing response bodies. It is kept apart from the client's own
+     * pool so a parser blocked on a slow stream can never starve the threads delivering that stream.
+     */
+    public static synchronized ExecutorService workers() {
+        if (workers == null) workers = pool("api-io-", profile.threads());
+        return workers;
+    }
+
+    /** A request builder carrying the profile's timeout. */
+    public static HttpRequest.Builder request(URI uri) {
+        return HttpRequest.newBuilder(uri).timeout(profile().requestTimeout());
+    }
+
+    private static ExecutorService pool(String prefix, int size) {
+        AtomicInteger n = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(size, size, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread t = new Thread(r, prefix + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+}
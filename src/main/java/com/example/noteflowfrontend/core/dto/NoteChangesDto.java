@@ -0,0 +1,12 @@
+package com.example.noteflowfrontend.core.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.List;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record NoteChangesDto(
+        List<NoteDto> notes,
+        List<Long> deleted,
+        String cursor
+) {}
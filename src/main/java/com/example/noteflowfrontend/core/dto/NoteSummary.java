@@ -0,0 +1,50 @@
+package com.example.noteflowfrontend.core.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * What a note card needs: no {@code textHtml} and no {@code drawingJson}, just whether there is a drawing.
+ * Open the full note with {@code NoteApi.get(id)}.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record NoteSummary(
+        Long id,
+        String title,
+        boolean hasDrawing,
+        boolean favorite,
+        boolean trashed,
+        String deletedAt,
+        String createdAt,
+        String updatedAt,
+        String tagName,
+        String tagColor
+) {
+    public static NoteSummary from(NoteDto n) {
+        return new NoteSummary(n.id(), n.title(), n.drawingJson() != null, n.favorite(), n.trashed(),
+                n.deletedAt(), n.createdAt(), n.updatedAt(), n.tagName(), n.tagColor());
+    }
+
+    /**
+     * Wire shape for {@code ?fields=summary}. Older backends ignore the parameter and send full notes,
+     * so {@code drawingJson} is still accepted here and dropped right after parsing.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Wire(
+            Long id,
+            String title,
+            Boolean hasDrawing,
+            String drawingJson,
+            boolean favorite,
+            boolean trashed,
+            String deletedAt,
+            String createdAt,
+            String updatedAt,
+            String tagName,
+            String tagColor
+    ) {
+        public NoteSummary toSummary() {
+            boolean drawing = hasDrawing != null ? hasDrawing : drawingJson != null;
+            return new NoteSummary(id, title, drawing, favorite, trashed, deletedAt, createdAt, updatedAt, tagName, tagColor);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.noteflowfrontend.drawing;
+
+import java.util.Arrays;
+
+/**
+ * One pen-down..pen-up run: a packed {@code x0,y0,x1,y1,...} float array plus the brush it was drawn with.
+ * Grows while the stroke is being captured; treat it as read-only once handed to a {@link StrokeStore}.
+ */
+public final class Stroke {
+    private final int argb;
+    private final float width;
+    private final boolean eraser;
+    private float[] xy;
+    private int size; // floats in use
+
+    public Stroke(int argb, float width, boolean eraser) {
+        this(argb, width, eraser, new float[32], 0);
+    }
+
+    Stroke(int argb, float width, boolean eraser, float[] xy, int size) {
+        this.argb = argb;
+        this.width = width;
+        this.eraser = eraser;
+        this.xy = xy;
+        this.size = size;
+    }
+
+    public void add(float x, float y) {
+        if (size + 2 > xy.length) xy = Arrays.copyOf(xy, xy.length * 2);
+        xy[size++] = x;
+        xy[size++] = y;
+    }
+
+    /** Moves the last point, for extending a straight run instead of adding to it. */
+    public void setLast(float x, float y) {
+        if (size < 2) return;
+        xy[size - 2] = x;
+        xy[size - 1] = y;
+    }
+
+    public int pointCount() { return size / 2; }
+    public float x(int i) { return xy[2 * i]; }
+    public float y(int i) { return xy[2 * i + 1]; }
+
+    public int argb() { return argb; }
+    public float width() { return width; }
+    public boolean eraser() { return eraser; }
+
+    /** Copy of the coordinates, trimmed to length. */
+    public float[] points() {
+        return Arrays.copyOf(xy, size);
+    }
+
+    /** Same brush, different points; used when a captured stroke is simplified. */
+    public Stroke withPoints(float[] points) {
+        return new Stroke(argb, width, eraser, points, points.length);
+    }
+
+    void trim() {
+        if (xy.length != size) xy = Arrays.copyOf(xy, size);
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.noteflowfrontend.drawing;
+
+import javafx.geometry.Rectangle2D;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.image.WritableImage;
+import javafx.scene.layout.Pane;
+import javafx.scene.shape.Rectangle;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Drawing surface with two layers: committed strokes are painted once into a retained bitmap,
+ * and only the stroke under the pointer is repainted on a transparent layer above it.
+ *
+ * Both layers are allocated at the largest size the editor allows, and resizing the view only
+ * moves the clip, so nothing is redrawn. Rendered drawings are kept in a small image cache so
+ * that reopening the same drawing costs one blit instead of a replay.
+ */
+public class StrokeCanvas extends Pane {
+    private static final int IMAGE_CACHE_SIZE = 6;
+    private static final Map<String, WritableImage> imageCache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, WritableImage> eldest) {
+            return size() > IMAGE_CACHE_SIZE;
+        }
+    };
+
+    private final Canvas committed;
+    private final Canvas live;
+    private final GraphicsContext committedGc;
+    private final GraphicsContext liveGc;
+    private boolean smooth;
+
+    public StrokeCanvas(double maxWidth, double maxHeight) {
+        committed = new Canvas(maxWidth, maxHeight);
+        live = new Canvas(maxWidth, maxHeight);
+        committedGc = committed.getGraphicsContext2D();
+        liveGc = live.getGraphicsContext2D();
+        getChildren().addAll(committed, live);
+        setMinSize(USE_PREF_SIZE, USE_PREF_SIZE);
+        setMaxSize(USE_PREF_SIZE, USE_PREF_SIZE);
+
+        Rectangle clip = new Rectangle();
+        clip.widthProperty().bind(widthProperty());
+        clip.heightProperty().bind(heightProperty());
+        setClip(clip);
+        clearAll();
+    }
+
+    /** Paint strokes as Catmull-Rom curves rather than polylines. */
+    public void setSmooth(boolean smooth) {
+        this.smooth = smooth;
+    }
+
+    // ================= Live layer =================
+    /** Repaints the stroke being captured; cost is that stroke's length, not the drawing's. */
+    public void drawLive(Stroke s) {
+        liveGc.clearRect(0, 0, live.getWidth(), live.getHeight());
+        StrokePainter.paint(liveGc, s, smooth);
+    }
+
+    /** Moves a finished stroke from the live layer into the committed bitmap. */
+    public void commit(Stroke s) {
+        StrokePainter.paint(committedGc, s, smooth);
+        liveGc.clearRect(0, 0, live.getWidth(), live.getHeight());
+    }
+
+    // ================= Committed layer =================
+    public void clearAll() {
+        committedGc.setFill(StrokePainter.PAGE);
+        committedGc.fillRect(0, 0, committed.getWidth(), committed.getHeight());
+        liveGc.clearRect(0, 0, live.getWidth(), live.getHeight());
+    }
+
+    /** Replays {@code strokes} from a blank page. */
+    public void rebuild(List<Stroke> strokes) {
+        clearAll();
+        replay(strokes);
+    }
+
+    /** Paints {@code strokes} on top of what the committed layer already shows. */
+    public void replay(List<Stroke> strokes) {
+        for (Stroke s : strokes) StrokePainter.paint(committedGc, s, smooth);
+    }
+
+    /**
+     * Shows a loaded drawing. {@code cacheKey} identifies its exact content (null disables caching);
+     * on a hit the stored bitmap is blitted, otherwise the strokes are replayed and the result cached.
+     */
+    public void load(List<Stroke> strokes, String cacheKey) {
+        WritableImage cached = cacheKey == null ? null : imageCache.get(cacheKey);
+        if (cached != null) {
+            restore(cached);
+            return;
+        }
+        rebuild(strokes);
+        if (cacheKey != null && !strokes.isEmpty()) imageCache.put(cacheKey, bitmap());
+    }
+
+    /** Copy of the whole committed layer. */
+    public WritableImage bitmap() {
+        return committed.snapshot(null, null);
+    }
+
+    /** Replaces the committed layer with a bitmap taken by {@link #bitmap()}. */
+    public void restore(Image image) {
+        clearAll();
+        committedGc.drawImage(image, 0, 0);
+    }
+
+    /** The visible part of the drawing, for export. */
+    public WritableImage snapshotVisible() {
+        SnapshotParameters params = new SnapshotParameters();
+        params.setViewport(new Rectangle2D(0, 0,
+                Math.min(getWidth(), committed.getWidth()), Math.min(getHeight(), committed.getHeight())));
+        return committed.snapshot(params, null);
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.noteflowfrontend.drawing;
+
+/**
+ * Filters pointer samples while a stroke is drawn, and simplifies the stroke when it ends.
+ *
+ * While drawing, a sample is dropped when it is closer than {@code minDistance} to the last kept
+ * point. When it only continues the current direction (turn below {@code minAngleDegrees} and the
+ * skipped point within {@code tolerance} of the new segment), it moves the last point instead of
+ * adding one. When the pen lifts, Ramer–Douglas–Peucker with the same {@code tolerance} removes
+ * whatever is still redundant. Both steps stay within a fraction of a pixel of the input, so strokes
+ * look the same.
+ */
+public class StrokeCapture {
+
+    /** Capture thresholds in canvas pixels; {@code smooth} turns on Catmull-Rom curves when painting. */
+    public record Settings(double minDistance, double minAngleDegrees, double tolerance, boolean smooth) {
+        public static final Settings DEFAULT = new Settings(1.5, 5, 0.5, true);
+        public static final Settings RAW = new Settings(0, 0, 0, false);
+    }
+
+    private final Settings settings;
+    private final double cosMinAngle;
+
+    public StrokeCapture(Settings settings) {
+        this.settings = settings;
+        this.cosMinAngle = Math.cos(Math.toRadians(settings.minAngleDegrees()));
+    }
+
+    public Settings settings() { return settings; }
+
+    /** Adds a pointer sample to the stroke being drawn, unless it is redundant. */
+    public void add(Stroke s, float x, float y) {
+        int n = s.pointCount();
+        if (n == 0) {
+            s.add(x, y);
+            return;
+        }
+        float lx = s.x(n - 1), ly = s.y(n - 1);
+        double dx = x - lx, dy = y - ly;
+        double minD = settings.minDistance();
+        if (dx * dx + dy * dy < minD * minD) return;
+
+        if (n >= 2 && settings.minAngleDegrees() > 0) {
+            float px = s.x(n - 2), py = s.y(n - 2);
+            double ax = lx - px, ay = ly - py;
+            double lenA = Math.hypot(ax, ay), lenB = Math.hypot(dx, dy);
+            boolean straight = lenA > 0 && (ax * dx + ay * dy) / (lenA * lenB) >= cosMinAngle;
+            if (straight && distanceToSegment(lx, ly, px, py, x, y) <= settings.tolerance()) {
+                s.setLast(x, y);
+                return;
+            }
+        }
+        s.add(x, y);
+    }
+
+    /** Ramer–Douglas–Peucker over the finished stroke; returns {@code s} itself when nothing can go. */
+    public Stroke finish(Stroke s) {
+        int n = s.pointCount();
+        if (n < 3 || settings.tolerance() <= 0) return s;
+
+        boolean[] keep = new boolean[n];
+        keep[0] = keep[n - 1] = true;
+        int[] stack = new int[2 * n];
+        int top = 0;
+        stack[top++] = 0;
+        stack[top++] = n - 1;
+        double eps = settings.tolerance();
+        while (top > 0) {
+            int last = stack[--top], first = stack[--top];
+            double maxD = -1;
+            int index = -1;
+            for (int i = first + 1; i < last; i++) {
+                double d = distanceToSegment(s.x(i), s.y(i), s.x(first), s.y(first), s.x(last), s.y(last));
+                if (d > maxD) {
+                    maxD = d;
+                    index = i;
+                }
+            }
+            if (index >= 0 && maxD > eps) {
+                keep[index] = true;
+                stack[top++] = first;
+                stack[top++] = index;
+                stack[top++] = index;
+                stack[top++] = last;
+            }
+        }
+
+        int kept = 0;
+        for (boolean k : keep) if (k) kept++;
+        if (kept == n) return s;
+        float[] xy = new float[kept * 2];
+        int j = 0;
+        for (int i = 0; i < n; i++) {
+            if (!keep[i]) continue;
+            xy[j++] = s.x(i);
+            xy[j++] = s.y(i);
+        }
+        return s.withPoints(xy);
+    }
+
+    private static double distanceToSegment(double x, double y, double x1, double y1, double x2, double y2) {
+        double dx = x2 - x1, dy = y2 - y1;
+        double len2 = dx * dx + dy * dy;
+        if (len2 == 0) return Math.hypot(x - x1, y - y1);
+        double t = Math.max(0, Math.min(1, ((x - x1) * dx + (y - y1) * dy) / len2));
+        return Math.hypot(x - (x1 + t * dx), y - (y1 + t * dy));
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.noteflowfrontend.drawing;
+
+import com.example.noteflowfrontend.core.JacksonConfig;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Serializes strokes for the note's {@code drawingJson} field.
+ *
+ * Format {@code nfd1:} + Base64 of: varint stroke count, then per stroke the ARGB color (4 bytes),
+ * a flags byte (bit 0 = eraser), width in 1/100 px, point count, and the coordinates in 1/10 px as
+ * zigzag varints, each one a delta from the previous value on the same axis.
+ *
+ * {@link #decode} also reads the old JSON event list ({@code [{"m":"down","x":..}, {"m":"drag",..}, ..]})
+ * so existing notes open unchanged and are rewritten in the new format on their next save.
+ */
+public final class StrokeCodec {
+    public static final String PREFIX = "nfd1:";
+
+    private static final float XY_SCALE = 10f;
+    private static final float WIDTH_SCALE = 100f;
+
+    private StrokeCodec() {}
+
+    public static String encode(List<Stroke> strokes) {
+        if (strokes.isEmpty()) return "";
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64 + strokes.size() * 32);
+        writeVarint(out, strokes.size());
+        for (Stroke s : strokes) {
+            int c = s.argb();
+            out.write(c >>> 24);
+            out.write(c >>> 16);
+            out.write(c >>> 8);
+            out.write(c);
+            out.write(s.eraser() ? 1 : 0);
+            writeVarint(out, Math.round(s.width() * WIDTH_SCALE));
+
+            int n = s.pointCount();
+            writeVarint(out, n);
+            int px = 0, py = 0;
+            for (int i = 0; i < n; i++) {
+                int x = Math.round(s.x(i) * XY_SCALE);
+                int y = Math.round(s.y(i) * XY_SCALE);
+                writeVarint(out, zigzag(x - px));
+                writeVarint(out, zigzag(y - py));
+                px = x;
+                py = y;
+            }
+        }
+        return PREFIX + Base64.getEncoder().encodeToString(out.toByteArray());
+    }
+
+    /** Decodes either format; blank input is an empty drawing. */
+    public static List<Stroke> decode(String data) throws IOException {
+        if (data == null || data.isBlank()) return new ArrayList<>();
+        if (data.startsWith(PREFIX)) return decodeBinary(unbase64(data));
+        return decodeLegacyJson(data);
+    }
+
+    /**
+     * The strokes of {@code drawing} followed by those of {@code more}. Strokes are encoded
+     * independently of each other, so two binary drawings are joined without decoding a point:
+     * a new count, then both stroke runs as they are. Legacy JSON is decoded and encoded again.
+     */
+    public static String concat(String drawing, String more) throws IOException {
+        if (more == null || more.isBlank()) return drawing;
+        if (drawing == null || drawing.isBlank()) return more;
+        if (!drawing.startsWith(PREFIX) || !more.startsWith(PREFIX)) {
+            List<Stroke> strokes = decode(drawing);
+            strokes.addAll(decode(more));
+            return encode(strokes);
+        }
+        byte[] a = unbase64(drawing);
+        byte[] b = unbase64(more);
+        int[] posA = {0};
+        int[] posB = {0};
+        int count = readVarint(a, posA) + readVarint(b, posB);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(a.length + b.length);
+        writeVarint(out, count);
+        out.write(a, posA[0], a.length - posA[0]);
+        out.write(b, posB[0], b.length - posB[0]);
+        return PREFIX + Base64.getEncoder().encodeToString(out.toByteArray());
+    }
+
+    private static byte[] unbase64(String data) throws IOException {
+        try {
+            return Base64.getDecoder().decode(data.substring(PREFIX.length()));
+        } catch (IllegalArgumentException ex) {
+            throw new IOException("Corrupt drawing: " + ex.getMessage(), ex);
+        }
+    }
+
+    private static List<Stroke> decodeBinary(byte[] buf) throws IOException {
+        int[] pos = {0};
+        int count = readVarint(buf, pos);
+        List<Stroke> strokes = new ArrayList<>(count);
+        for (int s = 0; s < count; s++) {
+            if (pos[0] + 5 > buf.length) throw new IOException("Truncated drawing data");
+            int p = pos[0];
+            int argb = (buf[p] & 0xFF) << 24 | (buf[p + 1] & 0xFF) << 16 | (buf[p + 2] & 0xFF) << 8 | (buf[p + 3] & 0xFF);
+            boolean eraser = (buf[p + 4] & 1) != 0;
+            pos[0] = p + 5;
+            float width = readVarint(buf, pos) / WIDTH_SCALE;
+
+            int n = readVarint(buf, pos);
+            float[] xy = new float[n * 2];
+            int x = 0, y = 0;
+            for (int i = 0; i < n; i++) {
+                x += unzigzag(readVarint(buf, pos));
+                y += unzigzag(readVarint(buf, pos));
+                xy[2 * i] = x / XY_SCALE;
+                xy[2 * i + 1] = y / XY_SCALE;
+            }
+            strokes.add(new Stroke(argb, width, eraser, xy, xy.length));
+        }
+        return strokes;
+    }
+
+    /** Streams the legacy event array without building a map per sample. */
+    private static List<Stroke> decodeLegacyJson(String json) throws IOException {
+        List<Stroke> strokes = new ArrayList<>();
+        Stroke current = null;
+        try (JsonParser p = JacksonConfig.getObjectMapper().getFactory().createParser(json)) {
+            if (p.nextToken() != JsonToken.START_ARRAY) throw new IOException("Unrecognised drawing data");
+            while (p.nextToken() == JsonToken.START_OBJECT) {
+                String m = null, c = null;
+                double x = 0, y = 0, w = 3;
+                boolean er = false;
+                while (p.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = p.currentName();
+                    JsonToken v = p.nextToken();
+                    switch (field) {
+                        case "m" -> m = p.getValueAsString();
+                        case "x" -> x = p.getValueAsDouble(0);
+                        case "y" -> y = p.getValueAsDouble(0);
+                        case "w" -> w = p.getValueAsDouble(3);
+                        case "c" -> c = p.getValueAsString();
+                        case "er" -> er = v == JsonToken.VALUE_TRUE || "true".equals(p.getValueAsString());
+                        default -> p.skipChildren();
+                    }
+                }
+                if ("down".equals(m)) {
+                    if (current != null) finish(strokes, current);
+                    current = new Stroke(parseColor(c), (float) w, er);
+                    current.add((float) x, (float) y);
+                } else if ("drag".equals(m) && current != null) {
+                    current.add((float) x, (float) y);
+                } else if ("up".equals(m) && current != null) {
+                    finish(strokes, current);
+                    current = null;
+                }
+            }
+        }
+        if (current != null) finish(strokes, current);
+        return strokes;
+    }
+
+    private static void finish(List<Stroke> strokes, Stroke s) {
+        s.trim();
+        strokes.add(s);
+    }
+
+    /** {@code #RRGGBB} or {@code #RRGGBBAA} to opaque-by-default ARGB; anything else is black. */
+    public static int parseColor(String hex) {
+        if (hex == null) return 0xFF000000;
+        String h = hex.startsWith("#") ? hex.substring(1) : hex;
+        try {
+            if (h.length() == 6) return 0xFF000000 | Integer.parseInt(h, 16);
+            if (h.length() == 8) {
+                long rgba = Long.parseLong(h, 16);
+                return (int) ((rgba & 0xFF) << 24 | rgba >>> 8);
+            }
+        } catch (NumberFormatException ignored) {
+        }
+        return 0xFF000000;
+    }
+
+    // ---------- varints ----------
+    private static int zigzag(int v) { return (v << 1) ^ (v >> 31); }
+    private static int unzigzag(int v) { return (v >>> 1) ^ -(v & 1); }
+
+    private static void writeVarint(ByteArrayOutputStream out, int v) {
+        while ((v & ~0x7F) != 0) {
+            out.write((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        out.write(v);
+    }
+
+    private static int readVarint(byte[] buf, int[] pos) throws IOException {
+        int result = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            if (pos[0] >= buf.length) throw new IOException("Truncated drawing data");
+            byte b = buf[pos[0]++];
+            result |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return result;
+        }
+        throw new IOException("Malformed varint in drawing data");
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.noteflowfrontend.drawing;
+
+import javafx.scene.image.WritableImage;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Undo/redo for a {@link StrokeStore} shown on a {@link StrokeCanvas}.
+ *
+ * Every {@code checkpointEvery} strokes the committed layer is snapshotted. Undo restores the
+ * nearest snapshot at or below the target stroke count and replays only the strokes after it,
+ * so its cost doesn't grow with the size of the drawing. Snapshots are full-canvas bitmaps, so
+ * only the newest {@code maxCheckpoints} are kept; anything older replays from the page.
+ */
+public class StrokeHistory {
+    private interface Edit {
+        void undo();
+        void redo();
+    }
+
+    private final StrokeStore store;
+    private final StrokeCanvas canvas;
+    private final int checkpointEvery;
+    private final int maxCheckpoints;
+    private final Deque<Edit> undo = new ArrayDeque<>();
+    private final Deque<Edit> redo = new ArrayDeque<>();
+    private TreeMap<Integer, WritableImage> checkpoints = new TreeMap<>();
+    private Runnable onChange = () -> {};
+
+    public StrokeHistory(StrokeStore store, StrokeCanvas canvas, int checkpointEvery, int maxCheckpoints) {
+        this.store = store;
+        this.canvas = canvas;
+        this.checkpointEvery = checkpointEvery;
+        this.maxCheckpoints = maxCheckpoints;
+    }
+
+    /** Called whenever undo/redo availability may have changed. */
+    public void setOnChange(Runnable onChange) {
+        this.onChange = onChange;
+    }
+
+    public boolean canUndo() { return !undo.isEmpty(); }
+    public boolean canRedo() { return !redo.isEmpty(); }
+
+    /** Starts a fresh history at the store's current contents, e.g. right after a drawing is loaded. */
+    public void reset() {
+        undo.clear();
+        redo.clear();
+        checkpoints.clear();
+        if (store.size() > 0) checkpoints.put(store.size(), canvas.bitmap());
+        onChange.run();
+    }
+
+    // ================= Recording =================
+    /** Records a stroke the editor has already committed to the store and canvas. */
+    public void added(Stroke s) {
+        push(new Edit() {
+            public void undo() {
+                store.removeLast();
+                dropCheckpointsAbove(store.size());
+                restoreTo(store.size());
+            }
+
+            public void redo() {
+                store.add(s);
+                canvas.commit(s);
+                maybeCheckpoint();
+            }
+        });
+        maybeCheckpoint();
+    }
+
+    /** Clears the drawing as an undoable step. */
+    public void clear() {
+        List<Stroke> before = new ArrayList<>(store.strokes());
+        TreeMap<Integer, WritableImage> savedCheckpoints = checkpoints;
+        Edit edit = new Edit() {
+            public void undo() {
+                store.setAll(before);
+                checkpoints = savedCheckpoints;
+                restoreTo(store.size());
+            }
+
+            public void redo() {
+                store.clear();
+                checkpoints = new TreeMap<>();
+                canvas.clearAll();
+            }
+        };
+        edit.redo();
+        push(edit);
+    }
+
+    // ================= Undo / redo =================
+    public void undo() {
+        Edit e = undo.poll();
+        if (e == null) return;
+        e.undo();
+        redo.push(e);
+        onChange.run();
+    }
+
+    public void redo() {
+        Edit e = redo.poll();
+        if (e == null) return;
+        e.redo();
+        undo.push(e);
+        onChange.run();
+    }
+
+    private void push(Edit e) {
+        undo.push(e);
+        redo.clear();
+        onChange.run();
+    }
+
+    // ================= Checkpoints =================
+    private void maybeCheckpoint() {
+        int n = store.size();
+        if (n == 0 || n % checkpointEvery != 0 || checkpoints.containsKey(n)) return;
+        checkpoints.put(n, canvas.bitmap());
+        while (checkpoints.size() > maxCheckpoints) checkpoints.pollFirstEntry();
+    }
+
+    private void dropCheckpointsAbove(int size) {
+        checkpoints.tailMap(size, false).clear();
+    }
+
+    /** Repaints the committed layer for the first {@code size} strokes from the closest snapshot. */
+    private void restoreTo(int size) {
+        Map.Entry<Integer, WritableImage> base = checkpoints.floorEntry(size);
+        List<Stroke> strokes = store.strokes();
+        if (base == null) {
+            canvas.rebuild(strokes.subList(0, size));
+            return;
+        }
+        canvas.restore(base.getValue());
+        canvas.replay(strokes.subList(base.getKey(), size));
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.noteflowfrontend.drawing;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+
+/** Draws {@link Stroke}s onto a canvas; the eraser paints the page background. */
+public final class StrokePainter {
+    public static final Color PAGE = Color.WHITE;
+
+    private StrokePainter() {}
+
+    public static Color color(Stroke s) {
+        if (s.eraser()) return PAGE;
+        int c = s.argb();
+        return Color.rgb((c >>> 16) & 0xFF, (c >>> 8) & 0xFF, c & 0xFF, ((c >>> 24) & 0xFF) / 255.0);
+    }
+
+    public static void paint(GraphicsContext gc, Stroke s) {
+        paint(gc, s, false);
+    }
+
+    /** With {@code smooth}, segments become Catmull-Rom curves through the same points. */
+    public static void paint(GraphicsContext gc, Stroke s, boolean smooth) {
+        int n = s.pointCount();
+        if (n == 0) return;
+        gc.setLineWidth(s.width());
+        gc.setStroke(color(s));
+        gc.beginPath();
+        gc.moveTo(s.x(0), s.y(0));
+        if (!smooth || n < 3) {
+            for (int i = 1; i < n; i++) gc.lineTo(s.x(i), s.y(i));
+        } else {
+            for (int i = 0; i < n - 1; i++) {
+                int prev = Math.max(i - 1, 0), next = Math.min(i + 2, n - 1);
+                double c1x = s.x(i) + (s.x(i + 1) - s.x(prev)) / 6.0;
+                double c1y = s.y(i) + (s.y(i + 1) - s.y(prev)) / 6.0;
+                double c2x = s.x(i + 1) - (s.x(next) - s.x(i)) / 6.0;
+                double c2y = s.y(i + 1) - (s.y(next) - s.y(i)) / 6.0;
+                gc.bezierCurveTo(c1x, c1y, c2x, c2y, s.x(i + 1), s.y(i + 1));
+            }
+        }
+        gc.stroke();
+        gc.closePath();
+    }
+}
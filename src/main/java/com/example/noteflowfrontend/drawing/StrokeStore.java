@@ -0,0 +1,69 @@
+package com.example.noteflowfrontend.drawing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/** The drawing model for one note: committed strokes in paint order, plus the one being drawn. */
+public class StrokeStore {
+    private final List<Stroke> strokes = new ArrayList<>();
+    private final StrokeCapture capture;
+    private Stroke current;
+
+    public StrokeStore() {
+        this(new StrokeCapture(StrokeCapture.Settings.RAW));
+    }
+
+    public StrokeStore(StrokeCapture capture) {
+        this.capture = capture;
+    }
+
+    public Stroke begin(int argb, float width, boolean eraser, float x, float y) {
+        current = new Stroke(argb, width, eraser);
+        current.add(x, y);
+        return current;
+    }
+
+    public void extend(float x, float y) {
+        if (current != null) capture.add(current, x, y);
+    }
+
+    /** Commits the stroke in progress and returns it, or null if nothing was being drawn. */
+    public Stroke end() {
+        if (current == null) return null;
+        Stroke done = capture.finish(current);
+        current = null;
+        done.trim();
+        strokes.add(done);
+        return done;
+    }
+
+    public Stroke current() { return current; }
+
+    public void add(Stroke s) {
+        strokes.add(s);
+    }
+
+    public Stroke removeLast() {
+        return strokes.isEmpty() ? null : strokes.remove(strokes.size() - 1);
+    }
+
+    public List<Stroke> strokes() {
+        return Collections.unmodifiableList(strokes);
+    }
+
+    public int size() { return strokes.size(); }
+
+    public boolean isEmpty() { return strokes.isEmpty() && current == null; }
+
+    public void setAll(List<Stroke> loaded) {
+        strokes.clear();
+        strokes.addAll(loaded);
+        current = null;
+    }
+
+    public void clear() {
+        strokes.clear();
+        current = null;
+    }
+}
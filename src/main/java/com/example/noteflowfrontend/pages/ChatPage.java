@@ -17,7 +17,6 @@ import javafx.util.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Map;
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicReference;
 
 public class ChatPage extends BorderPane {
@@ -338,28 +337,19 @@ public class ChatPage extends BorderPane {
         setInputDisabled(true);
 
         // Send request to backend
-        CompletableFuture.runAsync(() -> {
-            try {
-                var requestBody = Map.of("message", message, "model", currentModel);
-                ChatReply reply = ApiClient.post("/chat", requestBody, ChatReply.class);
-
-                Platform.runLater(() -> {
-                    showTypingIndicator(false);
-                    addAIMessage(reply.response());
-                    setInputDisabled(false);
-                    updateStatus("Message sent successfully");
-                    inputField.requestFocus();
-                });
-
-            } catch (Exception e) {
-                Platform.runLater(() -> {
-                    showTypingIndicator(false);
-                    addErrorMessage("❌ Error: " + e.getMessage());
-                    setInputDisabled(false);
-                    updateStatus("Error occurred");
-                });
+        var requestBody = Map.of("message", message, "model", currentModel);
+        ApiClient.postAsync("/chat", requestBody, ChatReply.class).whenCompleteAsync((reply, e) -> {
+            showTypingIndicator(false);
+            setInputDisabled(false);
+            if (e != null) {
+                addErrorMessage("❌ Error: " + ApiClient.unwrap(e).getMessage());
+                updateStatus("Error occurred");
+                return;
             }
-        });
+            addAIMessage(reply.response());
+            updateStatus("Message sent successfully");
+            inputField.requestFocus();
+        }, ApiClient.FX);
     }
 
     private void addUserMessage(String message) {
@@ -1,99 +1,131 @@
 package com.example.noteflowfrontend.pages;
 
+import com.example.noteflowfrontend.core.ApiClient;
 import com.example.noteflowfrontend.core.NoteApi;
-import com.example.noteflowfrontend.core.dto.NoteDto;
-import javafx.animation.FadeTransition;
+import com.example.noteflowfrontend.core.Prefetcher;
+import com.example.noteflowfrontend.core.dto.NoteSummary;
+import com.example.noteflowfrontend.shell.Page;
+import com.example.noteflowfrontend.ui.SelectionBar;
+import com.example.noteflowfrontend.ui.VirtualCardGrid;
+import javafx.animation.PauseTransition;
 import javafx.animation.ScaleTransition;
-import javafx.concurrent.Task;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.control.*;
+import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.*;
 import javafx.util.Duration;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.Set;
 
-public class FavoritesPage extends BorderPane {
-    private final FlowPane cardGrid = new FlowPane(16, 16);
-
-    //  CREATE A REUSABLE THREAD POOL FOR BACKGROUND TASKS
-    private final ExecutorService executorService = Executors.newSingleThreadExecutor(r -> {
-        Thread t = new Thread(r);
-        t.setDaemon(true); // Allows the app to exit even if this thread is running
-        return t;
-    });
+public class FavoritesPage extends BorderPane implements Page {
+    private final VirtualCardGrid<NoteSummary> cardGrid = new VirtualCardGrid<>(220, 220, 16, this::createNoteCard);
+    private int loadGeneration;
 
     public FavoritesPage() {
         setPadding(new Insets(24));
         setStyle("-fx-background-color: linear-gradient(to bottom, #F8FAFC, #F1F5F9);");
         setupHeader();
         setupMainContent();
+    }
+
+    @Override
+    public void onShow() {
         reload();
     }
 
+    @Override
+    public void onHide() {
+        ++loadGeneration;
+    }
+
 
     private void reload() {
-        cardGrid.getChildren().clear();
-        cardGrid.getChildren().add(createLoadingIndicator());
-
-        Task<List<NoteDto>> loadFavoritesTask = new Task<>() {
-            @Override
-            protected List<NoteDto> call() throws Exception {
-                return NoteApi.listFavorites();
-            }
-        };
-
-        loadFavoritesTask.setOnSucceeded(event -> {
-            List<NoteDto> notes = loadFavoritesTask.getValue();
-            cardGrid.getChildren().clear();
-            if (notes.isEmpty()) {
-                showEmptyState();
-            } else {
-                notes.forEach(n -> {
-                    VBox noteCard = createNoteCard(n);
-                    cardGrid.getChildren().add(noteCard);
-                    // Add subtle entrance animation
-                    FadeTransition fade = new FadeTransition(Duration.millis(200), noteCard);
-                    fade.setFromValue(0.0);
-                    fade.setToValue(1.0);
-                    fade.play();
-                });
-            }
-        });
+        int generation = ++loadGeneration;
+        // Render straight from the local store, then revalidate against the server
+        List<NoteSummary> cachedNotes = NoteApi.cachedSummaries(NoteApi.FAVORITES);
+        if (!cachedNotes.isEmpty()) renderNotes(cachedNotes);
+        else if (cardGrid.items().isEmpty()) cardGrid.showMessage(createLoadingIndicator());
+
+        NoteApi.listFavoriteSummaries()
+                .thenAcceptAsync(notes -> {
+                    if (generation != loadGeneration) return;
+                    if (cachedNotes.isEmpty() || !cachedNotes.equals(notes)) renderNotes(notes);
+                }, ApiClient.FX)
+                .exceptionallyAsync(ex -> {
+                    if (generation != loadGeneration) return null;
+                    if (!cachedNotes.isEmpty()) {
+                        // Offline: keep showing the cached notes
+                        System.err.println("Refresh failed: " + ApiClient.unwrap(ex).getMessage());
+                        return null;
+                    }
+                    showErrorState(ApiClient.unwrap(ex));
+                    return null;
+                }, ApiClient.FX);
+    }
 
-        // 5 DEFINE WHAT HAPPENS ON FAILURE
-        loadFavoritesTask.setOnFailed(event -> {
-            cardGrid.getChildren().clear();
-            showErrorState(loadFavoritesTask.getException());
-        });
+    private void renderNotes(List<NoteSummary> notes) {
+        if (notes.isEmpty()) {
+            showEmptyState();
+        } else {
+            cardGrid.setAll(notes);
+        }
+    }
 
-        // SUBMIT THE TASK TO THE EXECUTOR
-        executorService.submit(loadFavoritesTask);
+    /** Drops the card at once and sends the one request; the card comes back if the server refuses. */
+    private void removeFromFavorites(NoteSummary note) {
+        List<NoteSummary> before = removeCards(List.of(note));
+        NoteApi.setFavorite(note.id(), false)
+                .exceptionallyAsync(ex -> {
+                    restoreCards(before, Set.of(note.id()));
+                    showErr(ApiClient.unwrap(ex));
+                    return null;
+                }, ApiClient.FX);
     }
 
-    private void removeFromFavorites(NoteDto note) {
-        //  CREATE A TASK FOR THE UNFAVORITE ACTION
-        Task<Void> unfavoriteTask = new Task<>() {
-            @Override
-            protected Void call() throws Exception {
-                NoteApi.setFavorite(note.id(), false);
-                return null;
-            }
-        };
+    /** Drops the cards for {@code gone} at once; returns the cards as they were, for {@link #restoreCards}. */
+    private List<NoteSummary> removeCards(Collection<NoteSummary> gone) {
+        ++loadGeneration; // a reload still in flight predates this change
+        List<NoteSummary> before = cardGrid.items();
+        List<NoteSummary> next = new ArrayList<>(before);
+        if (next.removeAll(gone)) renderNotes(next);
+        return before;
+    }
 
-        //  ON SUCCESS, RELOAD THE LIST
-        unfavoriteTask.setOnSucceeded(event -> reload());
+    /** Puts the cards with {@code ids} back where they were in {@code before}, e.g. when the server refused. */
+    private void restoreCards(List<NoteSummary> before, Set<Long> ids) {
+        List<NoteSummary> next = new ArrayList<>(cardGrid.items());
+        for (int i = 0; i < before.size(); i++) {
+            NoteSummary note = before.get(i);
+            if (ids.contains(note.id()) && indexOf(next, note.id()) < 0) next.add(Math.min(i, next.size()), note);
+        }
+        renderNotes(next);
+    }
 
-        //  ON FAILURE, SHOW AN ERROR
-        unfavoriteTask.setOnFailed(event -> showErr(unfavoriteTask.getException()));
+    private static int indexOf(List<NoteSummary> notes, Long id) {
+        for (int i = 0; i < notes.size(); i++) {
+            if (notes.get(i).id().equals(id)) return i;
+        }
+        return -1;
+    }
 
-        //  SUBMIT THE TASK
-        executorService.submit(unfavoriteTask);
+    /** Drops the selected cards and sends one batch; any the server refuses come back. */
+    private void removeBatch(NoteApi.BatchAction action, List<NoteSummary> selected) {
+        Set<Long> ids = new LinkedHashSet<>();
+        for (NoteSummary n : selected) ids.add(n.id());
+        List<NoteSummary> before = removeCards(selected);
+        NoteApi.batch(action, ids).whenCompleteAsync((result, ex) -> {
+            if (ex == null && result.failed().isEmpty()) return;
+            restoreCards(before, ex != null ? ids : result.failed().keySet());
+            showErr(ex != null ? ApiClient.unwrap(ex) : new IllegalStateException(result.describe(ids.size())));
+        }, ApiClient.FX);
     }
 
-    private VBox createNoteCard(NoteDto note) {
+    private VBox createNoteCard(NoteSummary note) {
         Label title = new Label(note.title() == null ? "Untitled Note" : note.title());
         title.setStyle("""
                     -fx-font-size: 16px;
@@ -104,7 +136,7 @@ public class FavoritesPage extends BorderPane {
                 """);
         title.setMaxWidth(180);
 
-        String typeIcon = note.drawingJson() != null ? "Drawing" : "Text Note";
+        String typeIcon = note.hasDrawing() ? "Drawing" : "Text Note";
         Label typeLabel = new Label(typeIcon);
         typeLabel.setStyle("""
                     -fx-font-size: 12px;
@@ -175,6 +207,12 @@ public class FavoritesPage extends BorderPane {
         content.setOnMouseEntered(e -> content.setStyle(content.getStyle() + "-fx-effect: dropshadow(gaussian, rgba(0,0,0,0.12), 20, 0, 0, 8);"));
         content.setOnMouseExited(e -> content.setStyle(content.getStyle().replace("-fx-effect: dropshadow(gaussian, rgba(0,0,0,0.12), 20, 0, 0, 8);", "-fx-effect: dropshadow(gaussian, rgba(0,0,0,0.06), 12, 0, 0, 4);")));
 
+        // Resting on a card fetches its body in the background, so Open doesn't wait for it
+        PauseTransition dwell = new PauseTransition(Duration.millis(150));
+        dwell.setOnFinished(e -> Prefetcher.enqueue("note:" + note.id(), () -> NoteApi.open(note)));
+        content.addEventHandler(MouseEvent.MOUSE_ENTERED, e -> dwell.playFromStart());
+        content.addEventHandler(MouseEvent.MOUSE_EXITED, e -> dwell.stop());
+
         return new VBox(content);
     }
 
@@ -209,25 +247,18 @@ public class FavoritesPage extends BorderPane {
     }
 
     private void setupMainContent() {
-        cardGrid.setPadding(new Insets(8));
-        cardGrid.setAlignment(Pos.TOP_LEFT);
-        cardGrid.setPrefWrapLength(0);
-        var scroller = new ScrollPane(cardGrid);
-        scroller.setFitToWidth(true);
-        scroller.setStyle("""
-                    -fx-background: transparent;
-                    -fx-background-color: transparent;
-                    -fx-border-color: transparent;
-                """);
-        scroller.setHbarPolicy(ScrollPane.ScrollBarPolicy.NEVER);
-        scroller.setVbarPolicy(ScrollPane.ScrollBarPolicy.AS_NEEDED);
-        setCenter(scroller);
+        SelectionBar<NoteSummary> selectionBar = new SelectionBar<>(cardGrid);
+        selectionBar.addAction("Unfavorite", selected -> removeBatch(NoteApi.BatchAction.UNFAVORITE, selected));
+
+        VBox content = new VBox(12, selectionBar, cardGrid);
+        VBox.setVgrow(cardGrid, Priority.ALWAYS);
+        setCenter(content);
     }
 
-    private void openEditor(NoteDto note) {
+    private void openEditor(NoteSummary note) {
         var dialog = new Dialog<Void>();
         dialog.setTitle("Edit Note");
-        var editor = new NoteEditorPage(note, note.drawingJson() != null ? "draw" : "text");
+        var editor = new NoteEditorPage(note, note.hasDrawing() ? "draw" : "text");
         dialog.getDialogPane().setContent(editor);
         dialog.getDialogPane().getButtonTypes().add(ButtonType.CLOSE);
         dialog.setResizable(true);
@@ -334,7 +365,7 @@ public class FavoritesPage extends BorderPane {
                     -fx-font-family: 'SF Pro Text', 'Segoe UI', system-ui;
                 """);
         emptyState.getChildren().addAll(icon, title, subtitle);
-        cardGrid.getChildren().add(emptyState);
+        cardGrid.showMessage(emptyState);
     }
 
     private void showErrorState(Throwable ex) {
@@ -363,7 +394,7 @@ public class FavoritesPage extends BorderPane {
             reload();
         });
         errorState.getChildren().addAll(icon, title, subtitle, retryBtn);
-        cardGrid.getChildren().add(errorState);
+        cardGrid.showMessage(errorState);
     }
 
     private void showErr(Throwable ex) {
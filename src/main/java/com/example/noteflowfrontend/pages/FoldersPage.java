@@ -1,10 +1,19 @@
 package com.example.noteflowfrontend.pages;
 
+import com.example.noteflowfrontend.core.ApiClient;
+import com.example.noteflowfrontend.core.FxBatcher;
 import com.example.noteflowfrontend.core.NoteApi;
+import com.example.noteflowfrontend.core.NoteSearchIndex;
+import com.example.noteflowfrontend.core.NoteSync;
+import com.example.noteflowfrontend.core.Prefetcher;
+import com.example.noteflowfrontend.core.Tasks;
+import com.example.noteflowfrontend.core.TodoApi;
 import com.example.noteflowfrontend.core.dto.NoteDto;
-import javafx.animation.FadeTransition;
+import com.example.noteflowfrontend.shell.Page;
+import com.example.noteflowfrontend.ui.SelectionBar;
+import com.example.noteflowfrontend.ui.VirtualCardGrid;
+import javafx.animation.PauseTransition;
 import javafx.animation.ScaleTransition;
-import javafx.concurrent.Task;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.control.*;
@@ -13,13 +22,15 @@ import javafx.scene.paint.Color;
 import javafx.util.Duration;
 
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
-public class FoldersPage extends BorderPane {
-    private final FlowPane cardGrid = new FlowPane(16, 16);
+public class FoldersPage extends BorderPane implements Page {
+    private final VirtualCardGrid<NoteDto> cardGrid = new VirtualCardGrid<>(220, 220, 16, this::createNoteCard);
     private final TextField search = new TextField();
     private final Button newTextBtn = new Button("✎ New Note");
     private final Button newDrawBtn = new Button("🎨 New Drawing");
@@ -30,12 +41,15 @@ public class FoldersPage extends BorderPane {
     private final Button clearFiltersBtn = new Button("Clear");
 
     private List<NoteDto> notes = new ArrayList<>();
+    private int loadGeneration;
 
-    private final ExecutorService executorService = Executors.newSingleThreadExecutor(r -> {
-        Thread t = new Thread(r);
-        t.setDaemon(true);
-        return t;
-    });
+    // Search runs off the FX thread once typing pauses; a newer query supersedes older ones
+    private final Tasks.Scope tasks = Tasks.scope(this);
+    private final PauseTransition searchDebounce = new PauseTransition(Duration.millis(180));
+    private CompletableFuture<List<NoteDto>> pendingSearch;
+    private int searchGeneration;
+
+    private boolean neighboursWarmed;
 
     public FoldersPage() {
         setPadding(new Insets(24));
@@ -43,49 +57,194 @@ public class FoldersPage extends BorderPane {
         setupHeader();
         setupMainContent();
         setupEventHandlers();
+    }
+
+    @Override
+    public void onShow() {
         reload();
+        warmNeighbours();
+    }
+
+    /**
+     * Once per session, fetch what the other sidebar sections show into the local caches. The
+     * prefetcher only starts once this page's own requests are done.
+     */
+    private void warmNeighbours() {
+        if (neighboursWarmed) return;
+        neighboursWarmed = true;
+        Prefetcher.enqueue("route:todos", TodoApi::list);
+        Prefetcher.enqueue("route:trash", NoteApi::listTrashSummaries);
+        Prefetcher.enqueue("route:favorites", NoteApi::listFavoriteSummaries);
+    }
+
+    @Override
+    public void onHide() {
+        searchDebounce.stop();
+        tasks.cancelAll();
+        ++loadGeneration;
+        ++searchGeneration;
     }
 
     private void reload() {
-        cardGrid.getChildren().clear();
-        cardGrid.getChildren().add(createLoadingIndicator());
-
-        Task<List<NoteDto>> loadNotesTask = new Task<>() {
-            @Override
-            protected List<NoteDto> call() throws Exception {
-                String name = tagNameFilter.getText();
-                String color = (tagColorFilter.getValue() == null) ? null : toHex(tagColorFilter.getValue());
-                return NoteApi.list(name, color);
-            }
-        };
+        int generation = ++loadGeneration;
 
-        loadNotesTask.setOnSucceeded(event -> {
-            notes = loadNotesTask.getValue();
+        String name = tagNameFilter.getText();
+        String color = (tagColorFilter.getValue() == null) ? null : toHex(tagColorFilter.getValue());
+
+        // Render straight from the local store, then revalidate against the server
+        List<NoteDto> cachedNotes = NoteApi.cached(n -> NoteApi.ACTIVE.test(n) && matchesTag(n, name, color));
+        List<NoteDto> fresh = new ArrayList<>();
+        if (cachedNotes.isEmpty()) {
+            notes = fresh;
+            cardGrid.showMessage(createLoadingIndicator());
+        } else {
+            notes = cachedNotes;
             render();
-        });
+        }
+
+        // Unfiltered view over a warm store: only fetch what changed since the last sync
+        boolean unfiltered = (name == null || name.isBlank()) && color == null;
+        if (unfiltered && !cachedNotes.isEmpty() && NoteSync.isWarm()) {
+            NoteSync.sync()
+                    .thenAcceptAsync(synced -> {
+                        if (generation != loadGeneration || notes.equals(synced)) return;
+                        notes = synced;
+                        render();
+                    }, ApiClient.FX)
+                    .exceptionally(ex -> {
+                        System.err.println("Notes sync failed: " + ApiClient.unwrap(ex).getMessage());
+                        return null;
+                    });
+            return;
+        }
 
-        loadNotesTask.setOnFailed(event -> {
-            cardGrid.getChildren().clear();
-            showErrorState(loadNotesTask.getException());
+        // Without a cache, cards appear batch by batch while the list is still being parsed;
+        // with one, the fresh list is swapped in once complete so cards don't flicker
+        FxBatcher<NoteDto> batcher = new FxBatcher<>(batch -> {
+            if (generation != loadGeneration) return;
+            boolean first = fresh.isEmpty();
+            fresh.addAll(batch);
+            if (notes != fresh) return;
+            if (first) cardGrid.clear();
+            String q = currentQuery();
+            List<NoteDto> matching = new ArrayList<>(batch.size());
+            for (var note : batch) {
+                if (NoteSearchIndex.matches(note, q)) matching.add(note);
+            }
+            cardGrid.addAll(matching);
         });
 
-        executorService.submit(loadNotesTask);
+        NoteApi.stream(name, color, batcher)
+                .thenAcceptAsync(count -> {
+                    if (generation != loadGeneration) return;
+                    batcher.flush();
+                    if (notes != fresh) {
+                        if (!notes.equals(fresh)) {
+                            notes = fresh;
+                            render();
+                        }
+                    } else if (cardGrid.items().isEmpty()) {
+                        render();
+                    }
+                }, ApiClient.FX)
+                .exceptionallyAsync(ex -> {
+                    if (generation != loadGeneration) return null;
+                    if (notes != fresh) {
+                        // Offline: keep showing the cached notes
+                        System.err.println("Notes refresh failed: " + ApiClient.unwrap(ex).getMessage());
+                        return null;
+                    }
+                    showErrorState(ApiClient.unwrap(ex));
+                    return null;
+                }, ApiClient.FX);
     }
 
+    /**
+     * Updates the card at once and sends the one request; the list isn't fetched again. If the
+     * server refuses, the note is put back as it was.
+     */
     private void performNoteAction(NoteAction action, NoteDto note) {
-        Task<Void> noteActionTask = new Task<>() {
-            @Override
-            protected Void call() throws Exception {
-                switch (action) {
-                    case TOGGLE_FAVORITE -> NoteApi.setFavorite(note.id(), !note.favorite());
-                    case MOVE_TO_TRASH -> NoteApi.setTrashed(note.id(), true);
-                }
-                return null;
-            }
+        int index = indexOf(note.id());
+        List<NoteDto> before = notes;
+        List<NoteDto> next = new ArrayList<>(before);
+        if (index >= 0) {
+            if (action == NoteAction.TOGGLE_FAVORITE) next.set(index, withFavorite(note, !note.favorite()));
+            else next.remove(index); // trashed notes leave the active list
+        }
+        notes = next;
+        render();
+
+        var request = switch (action) {
+            case TOGGLE_FAVORITE -> NoteApi.setFavorite(note.id(), !note.favorite());
+            case MOVE_TO_TRASH -> NoteApi.setTrashed(note.id(), true);
         };
-        noteActionTask.setOnSucceeded(event -> reload());
-        noteActionTask.setOnFailed(event -> showErr(noteActionTask.getException()));
-        executorService.submit(noteActionTask);
+        request.thenAcceptAsync(saved -> {
+                    // Keep the server's copy (new updatedAt) in place of the local guess
+                    if (action == NoteAction.TOGGLE_FAVORITE && saved != null) putBack(saved, index);
+                }, ApiClient.FX)
+                .exceptionallyAsync(ex -> {
+                    restore(before, Set.of(note.id()));
+                    showErr(ApiClient.unwrap(ex));
+                    return null;
+                }, ApiClient.FX);
+    }
+
+    /** {@link #performNoteAction} for several notes at once, sent as one batch. */
+    private void performBatch(NoteApi.BatchAction action, List<NoteDto> selected) {
+        Set<Long> ids = new LinkedHashSet<>();
+        for (NoteDto n : selected) ids.add(n.id());
+        List<NoteDto> before = notes;
+        List<NoteDto> next = new ArrayList<>(before.size());
+        for (NoteDto n : before) {
+            if (!ids.contains(n.id())) next.add(n);
+            else if (action == NoteApi.BatchAction.FAVORITE) next.add(withFavorite(n, true));
+        }
+        notes = next;
+        render();
+
+        NoteApi.batch(action, ids).whenCompleteAsync((result, ex) -> {
+            if (ex == null && result.failed().isEmpty()) return;
+            restore(before, ex != null ? ids : result.failed().keySet());
+            showErr(ex != null ? ApiClient.unwrap(ex) : new IllegalStateException(result.describe(ids.size())));
+        }, ApiClient.FX);
+    }
+
+    private int indexOf(Long id) {
+        for (int i = 0; i < notes.size(); i++) {
+            if (notes.get(i).id().equals(id)) return i;
+        }
+        return -1;
+    }
+
+    /** Replaces the note with the same id, or inserts {@code note} near where it was if it's gone. */
+    private void putBack(NoteDto note, int index) {
+        List<NoteDto> next = new ArrayList<>(notes);
+        int at = indexOf(note.id());
+        if (at >= 0) next.set(at, note);
+        else if (index >= 0) next.add(Math.min(index, next.size()), note);
+        else return;
+        notes = next;
+        render();
+    }
+
+    /** Puts the notes with {@code ids} back as they were in {@code before}, e.g. when the server refused a change. */
+    private void restore(List<NoteDto> before, Set<Long> ids) {
+        List<NoteDto> next = new ArrayList<>(notes);
+        for (int i = 0; i < before.size(); i++) {
+            NoteDto original = before.get(i);
+            if (!ids.contains(original.id())) continue;
+            int at = -1;
+            for (int j = 0; j < next.size() && at < 0; j++) if (next.get(j).id().equals(original.id())) at = j;
+            if (at >= 0) next.set(at, original);
+            else next.add(Math.min(i, next.size()), original);
+        }
+        notes = next;
+        render();
+    }
+
+    private static NoteDto withFavorite(NoteDto n, boolean favorite) {
+        return new NoteDto(n.id(), n.title(), n.textHtml(), n.drawingJson(), favorite, n.trashed(), n.deletedAt(),
+                n.createdAt(), n.updatedAt(), n.tagName(), n.tagColor());
     }
 
     private enum NoteAction {
@@ -94,31 +253,58 @@ public class FoldersPage extends BorderPane {
     }
 
     private void render() {
-        cardGrid.getChildren().clear();
-        String q = search.getText() == null ? "" : search.getText().trim().toLowerCase();
+        ++searchGeneration;
+        String q = currentQuery();
+        showCards(search(notes, q), q);
+    }
 
-        List<NoteDto> filteredNotes = notes.stream()
-                .filter(n -> q.isEmpty() ||
-                        (n.title() != null && n.title().toLowerCase().contains(q)) ||
-                        (n.textHtml() != null && n.textHtml().toLowerCase().contains(q)))
-                .collect(Collectors.toList());
+    private void runSearch() {
+        int generation = ++searchGeneration;
+        if (pendingSearch != null) pendingSearch.cancel(false);
+        String q = currentQuery();
+        List<NoteDto> snapshot = List.copyOf(notes);
+        pendingSearch = tasks.run(() -> search(snapshot, q), (visible, ex) -> {
+            if (ex == null && generation == searchGeneration) showCards(visible, q);
+        });
+    }
 
-        if (filteredNotes.isEmpty()) {
+    /** Shows {@code visible} in order; the grid only builds cards for the rows on screen. */
+    private void showCards(List<NoteDto> visible, String q) {
+        if (visible.isEmpty()) {
             if (q.isEmpty()) {
                 showEmptyState();
             } else {
                 showNoResultsState(q);
             }
-        } else {
-            for (var note : filteredNotes) {
-                VBox noteCard = createNoteCard(note);
-                cardGrid.getChildren().add(noteCard);
-                FadeTransition fade = new FadeTransition(Duration.millis(200), noteCard);
-                fade.setFromValue(0.0);
-                fade.setToValue(1.0);
-                fade.play();
-            }
+            return;
         }
+        cardGrid.setAll(visible);
+    }
+
+    private String currentQuery() {
+        return search.getText() == null ? "" : search.getText().trim();
+    }
+
+    /**
+     * Notes matching {@code q}, best match first, looked up in the store's search index. Notes the
+     * store doesn't hold yet (e.g. mid-stream) are matched one by one with the same rules.
+     */
+    private static List<NoteDto> search(List<NoteDto> notes, String q) {
+        if (q.isEmpty()) return notes;
+        Map<Long, Integer> hits = NoteApi.search(q);
+        List<NoteDto> out = new ArrayList<>();
+        for (NoteDto n : notes) {
+            if (hits.containsKey(n.id()) || (!NoteApi.isStored(n.id()) && NoteSearchIndex.matches(n, q))) out.add(n);
+        }
+        out.sort(Comparator.comparingInt((NoteDto n) -> hits.getOrDefault(n.id(), 0)).reversed());
+        return out;
+    }
+
+    // Local mirror of the server's tag filters, used for the cached first paint
+    private static boolean matchesTag(NoteDto n, String name, String color) {
+        if (name != null && !name.isBlank()
+                && (n.tagName() == null || !n.tagName().toLowerCase().contains(name.trim().toLowerCase()))) return false;
+        return color == null || color.isBlank() || color.equalsIgnoreCase(n.tagColor());
     }
 
     private VBox createNoteCard(NoteDto note) {
@@ -342,15 +528,13 @@ public class FoldersPage extends BorderPane {
     }
 
     private void setupMainContent() {
-        cardGrid.setPadding(new Insets(8));
-        cardGrid.setAlignment(Pos.TOP_LEFT);
-        cardGrid.setPrefWrapLength(0);
-        var scroller = new ScrollPane(cardGrid);
-        scroller.setFitToWidth(true);
-        scroller.setStyle("-fx-background: transparent; -fx-background-color: transparent; -fx-border-color: transparent;");
-        scroller.setHbarPolicy(ScrollPane.ScrollBarPolicy.NEVER);
-        scroller.setVbarPolicy(ScrollPane.ScrollBarPolicy.AS_NEEDED);
-        setCenter(scroller);
+        SelectionBar<NoteDto> selectionBar = new SelectionBar<>(cardGrid);
+        selectionBar.addAction("☆ Favorite", selected -> performBatch(NoteApi.BatchAction.FAVORITE, selected));
+        selectionBar.addAction("🗑 Move to Trash", selected -> performBatch(NoteApi.BatchAction.TRASH, selected));
+
+        VBox content = new VBox(12, selectionBar, cardGrid);
+        VBox.setVgrow(cardGrid, Priority.ALWAYS);
+        setCenter(content);
     }
 
     private void setupEventHandlers() {
@@ -362,7 +546,8 @@ public class FoldersPage extends BorderPane {
             animateButtonPress(newDrawBtn);
             openEditor(null, "draw");
         });
-        search.textProperty().addListener((o, a, b) -> render());
+        searchDebounce.setOnFinished(e -> runSearch());
+        search.textProperty().addListener((o, a, b) -> searchDebounce.playFromStart());
         search.focusedProperty().addListener((obs, oldVal, newVal) -> {
             if (newVal) {
                 search.setStyle(search.getStyle() + "-fx-border-color: #3B82F6; -fx-border-width: 2px;");
@@ -417,7 +602,7 @@ public class FoldersPage extends BorderPane {
         Label subtitle = new Label("Create your first note to get started");
         subtitle.setStyle("-fx-font-size: 14px; -fx-text-fill: #6B7280; -fx-font-family: 'SF Pro Text', 'Segoe UI', system-ui;");
         emptyState.getChildren().addAll(icon, title, subtitle);
-        cardGrid.getChildren().add(emptyState);
+        cardGrid.showMessage(emptyState);
     }
 
     private void showNoResultsState(String query) {
@@ -432,7 +617,7 @@ public class FoldersPage extends BorderPane {
         Label subtitle = new Label("Try searching with different keywords");
         subtitle.setStyle("-fx-font-size: 14px; -fx-text-fill: #6B7280; -fx-font-family: 'SF Pro Text', 'Segoe UI', system-ui;");
         noResults.getChildren().addAll(icon, title, subtitle);
-        cardGrid.getChildren().add(noResults);
+        cardGrid.showMessage(noResults);
     }
 
     private void showErrorState(Throwable ex) {
@@ -450,7 +635,7 @@ public class FoldersPage extends BorderPane {
         styleModernButton(retryBtn, "#3B82F6", "#2563EB");
         retryBtn.setOnAction(e -> reload());
         errorState.getChildren().addAll(icon, title, subtitle, retryBtn);
-        cardGrid.getChildren().add(errorState);
+        cardGrid.showMessage(errorState);
     }
 
     private void openEditor(NoteDto existing, String startMode) {
@@ -1,10 +1,10 @@
 package com.example.noteflowfrontend.pages;
 
 import com.example.noteflowfrontend.core.Auth;
+import com.example.noteflowfrontend.core.Tasks;
 import com.example.noteflowfrontend.shell.Router;
 import javafx.animation.RotateTransition;
 import javafx.animation.Timeline;
-import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
@@ -20,6 +20,7 @@ import javafx.util.Duration;
 
 public class LoginPage {
     private final BorderPane root = new BorderPane();
+    private final Tasks.Scope tasks = Tasks.scope(root);
 
     public LoginPage(Router router) {
         root.setStyle("-fx-font-family: 'SF Pro Display', 'San Francisco', 'Helvetica Neue', 'Arial', sans-serif; -fx-font-size: 12px;");
@@ -201,38 +202,32 @@ public class LoginPage {
             remember.setDisable(true);
             toSignup.setDisable(true);
 
-            new Thread(() -> {
-                try {
-                    Thread.sleep(1500);
-                    boolean ok = Auth.login(email, pass);
-
-                    Platform.runLater(() -> {
-                        rotateTransition.stop();
-                        spinnerIcon.setVisible(false);
-                        buttonText.setText("Log In");
-                        login.setDisable(false);
-                        login.setOpacity(1.0);
-
-                        id.setDisable(false);
-                        pwd.setDisable(false);
-                        pwdPlain.setDisable(false);
-                        eye.setDisable(false);
-                        remember.setDisable(false);
-                        toSignup.setDisable(false);
-
-                        if (ok) {
-                            router.navigate("folders");
-                        } else {
-                            msg.setText("Invalid email or password. Please try again.");
-                            msg.setVisible(true);
-                            id.setStyle(inputStyle + "-fx-border-color: #FF3B30; -fx-border-width: 2;");
-                            pwdRow.setStyle("-fx-border-color: #FF3B30; -fx-border-width: 2; -fx-border-radius: 14;");
-                        }
-                    });
-                } catch (InterruptedException ex) {
-                    Thread.currentThread().interrupt();
+            tasks.run(() -> {
+                Thread.sleep(1500);
+                return Auth.login(email, pass);
+            }, (ok, ex) -> {
+                rotateTransition.stop();
+                spinnerIcon.setVisible(false);
+                buttonText.setText("Log In");
+                login.setDisable(false);
+                login.setOpacity(1.0);
+
+                id.setDisable(false);
+                pwd.setDisable(false);
+                pwdPlain.setDisable(false);
+                eye.setDisable(false);
+                remember.setDisable(false);
+                toSignup.setDisable(false);
+
+                if (Boolean.TRUE.equals(ok)) {
+                    router.navigate("folders");
+                } else {
+                    msg.setText("Invalid email or password. Please try again.");
+                    msg.setVisible(true);
+                    id.setStyle(inputStyle + "-fx-border-color: #FF3B30; -fx-border-width: 2;");
+                    pwdRow.setStyle("-fx-border-color: #FF3B30; -fx-border-width: 2; -fx-border-radius: 14;");
                 }
-            }).start();
+            });
         });
 
         id.textProperty().addListener((obs, old, val) -> id.setStyle(inputStyle));
@@ -1,24 +1,32 @@
 package com.example.noteflowfrontend.pages;
 
+import com.example.noteflowfrontend.core.ApiClient;
 import com.example.noteflowfrontend.core.NoteApi;
+import com.example.noteflowfrontend.core.NoteAutosave;
 import com.example.noteflowfrontend.core.dto.NoteDto;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.noteflowfrontend.core.dto.NoteSummary;
+import com.example.noteflowfrontend.drawing.Stroke;
+import com.example.noteflowfrontend.drawing.StrokeCodec;
+import com.example.noteflowfrontend.drawing.StrokeHistory;
+import com.example.noteflowfrontend.drawing.StrokeCanvas;
+import com.example.noteflowfrontend.drawing.StrokeCapture;
+import com.example.noteflowfrontend.drawing.StrokeStore;
 import javafx.animation.ScaleTransition;
 import javafx.embed.swing.SwingFXUtils;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
 import javafx.scene.SnapshotParameters;
-import javafx.scene.canvas.Canvas;
-import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.control.*;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
 import javafx.scene.transform.Transform;
 import javafx.scene.web.HTMLEditor;
 import javafx.stage.FileChooser;
+import javafx.stage.WindowEvent;
 import javafx.util.Duration;
 
 import javax.imageio.ImageIO;
@@ -53,8 +61,7 @@ public class NoteEditorPage extends BorderPane {
     private final ColorPicker tagColorPicker = new ColorPicker();
 
     // Drawing
-    private final Canvas canvas = new Canvas(640, 360);
-    private GraphicsContext gc;
+    private final StrokeCanvas canvas = new StrokeCanvas(1000, 700);
     private final ColorPicker colorPicker = new ColorPicker(Color.BLACK);
     private final Slider sizeSlider = new Slider(1, 30, 3);
     private final ToggleButton eraserBtn = new ToggleButton("Eraser");
@@ -62,9 +69,14 @@ public class NoteEditorPage extends BorderPane {
     private Long noteId; // null for new
     private String mode = "text"; // or "draw"
 
-    // event-based drawing model
-    private final List<Map<String, Object>> events = new ArrayList<>();
-    private static final ObjectMapper M = new ObjectMapper();
+    // stroke-based drawing model
+    private final StrokeCapture capture = new StrokeCapture(StrokeCapture.Settings.DEFAULT);
+    private final StrokeStore strokes = new StrokeStore(capture);
+    private final StrokeHistory history = new StrokeHistory(strokes, canvas, 25, 6);
+
+    private final NoteAutosave autosave = new NoteAutosave(this::draft, Duration.seconds(1.5));
+    private final Label saveStatus = new Label();
+    private boolean hasText; // keep the note's text even while the drawing is being edited
 
     // Header controls
     private Button saveBtn;
@@ -83,12 +95,35 @@ public class NoteEditorPage extends BorderPane {
         setupHeader(existing);
         setupMainContent();
         setupEventHandlers();
+        setupAutosave();
 
         if (existing != null) {
             loadExistingNote(existing);
         }
     }
 
+    /**
+     * Opens a note from a list card. The title shows right away; the body and drawing
+     * are loaded on demand, and saving stays disabled until they arrive.
+     */
+    public NoteEditorPage(NoteSummary summary, String startMode) {
+        this((NoteDto) null, startMode);
+        noteId = summary.id();
+        titleField.setText(summary.title() == null ? "" : summary.title());
+        favoriteBtn.setText(summary.favorite() ? "Unfavorite" : "Favorite");
+        saveBtn.setDisable(true);
+        autosave.hold();
+
+        NoteApi.open(summary).whenCompleteAsync((note, ex) -> {
+            if (ex != null) {
+                showModernError("Load Failed", "Failed to load note: " + ApiClient.unwrap(ex).getMessage());
+                return;
+            }
+            loadExistingNote(note);
+            saveBtn.setDisable(false);
+        }, ApiClient.FX);
+    }
+
     // ---------- UI: Header (Word-style ribbon) ----------
     private void setupHeader(NoteDto existing) {
         exportMenu = createExportMenu();
@@ -176,7 +211,15 @@ public class NoteEditorPage extends BorderPane {
         // Each group: label + pill container for controls
         VBox groupNote   = ribbonGroup("Note", new HBox(8, titleField, tagNameField, tagColorPicker));
         VBox groupMode   = ribbonGroup("Mode", new HBox(8, textToggle, drawToggle));
-        VBox groupAction = ribbonGroup("Actions", new HBox(8, saveBtn, favoriteBtn, trashBtn));
+        saveStatus.setStyle("""
+            -fx-font-size: 12px;
+            -fx-text-fill: %s;
+            -fx-font-family: 'SF Pro Text','Segoe UI',system-ui;
+        """.formatted(TEXT_SECOND));
+        saveStatus.setMinWidth(90);
+        HBox actions = new HBox(8, saveBtn, favoriteBtn, trashBtn, saveStatus);
+        actions.setAlignment(Pos.CENTER_LEFT);
+        VBox groupAction = ribbonGroup("Actions", actions);
         VBox groupExport = ribbonGroup("Export", new HBox(8, exportMenu));
 
         // Ribbon bar
@@ -325,17 +368,28 @@ public class NoteEditorPage extends BorderPane {
         Button clearBtn = createGhostButton("Clear Canvas");
         clearBtn.setOnAction(e -> {
             animateButtonPress(clearBtn);
-            clearCanvas();
-            events.clear();
+            history.clear();
         });
 
+        Button undoBtn = createGhostButton("Undo");
+        Button redoBtn = createGhostButton("Redo");
+        undoBtn.setOnAction(e -> history.undo());
+        redoBtn.setOnAction(e -> history.redo());
+        history.setOnChange(() -> {
+            undoBtn.setDisable(!history.canUndo());
+            redoBtn.setDisable(!history.canRedo());
+            autosave.changed();
+        });
+        undoBtn.setDisable(true);
+        redoBtn.setDisable(true);
+
         HBox colorSection = new HBox(8, colorLabel, colorPicker);
         colorSection.setAlignment(Pos.CENTER_LEFT);
 
         HBox sizeSection = new HBox(8, sizeLabel, sizeSlider, sizeValue);
         sizeSection.setAlignment(Pos.CENTER_LEFT);
 
-        FlowPane toolsRow = new FlowPane(24, 12, colorSection, sizeSection, eraserBtn, clearBtn);
+        FlowPane toolsRow = new FlowPane(24, 12, colorSection, sizeSection, eraserBtn, undoBtn, redoBtn, clearBtn);
         toolsRow.setAlignment(Pos.CENTER_LEFT);
         toolsRow.setPrefWrapLength(820);
         toolsRow.setPadding(new Insets(14));
@@ -365,15 +419,11 @@ public class NoteEditorPage extends BorderPane {
         // ---- Responsive canvas (keeps draw model intact) ----
         drawingArea.widthProperty().addListener((obs, oldW, newW) -> {
             double target = Math.min(1000, Math.max(360, newW.doubleValue() - 56));
-            canvas.setWidth(target);
-            clearCanvas();
-            redrawFromEvents();
+            canvas.setPrefWidth(target);
         });
         drawingArea.heightProperty().addListener((obs, oldH, newH) -> {
             double targetH = Math.min(700, Math.max(240, newH.doubleValue() - 220));
-            canvas.setHeight(targetH);
-            clearCanvas();
-            redrawFromEvents();
+            canvas.setPrefHeight(targetH);
         });
 
         return drawingArea;
@@ -381,86 +431,27 @@ public class NoteEditorPage extends BorderPane {
 
     // ---------- Canvas logic ----------
     private void setupCanvasEvents() {
-        gc = canvas.getGraphicsContext2D();
-        clearCanvas();
-
-        canvas.addEventHandler(MouseEvent.MOUSE_PRESSED, e -> {
-            gc.beginPath();
-            gc.moveTo(e.getX(), e.getY());
-            gc.setLineWidth(sizeSlider.getValue());
-            gc.setStroke(eraserBtn.isSelected() ? Color.WHITE : colorPicker.getValue());
-            gc.stroke();
-
-            Map<String, Object> down = new HashMap<>();
-            down.put("m", "down");
-            down.put("x", e.getX());
-            down.put("y", e.getY());
-            down.put("c", toHex(colorPicker.getValue()));
-            down.put("w", sizeSlider.getValue());
-            down.put("er", eraserBtn.isSelected());
-            events.add(down);
-        });
+        canvas.setPrefSize(640, 360);
+        canvas.setSmooth(capture.settings().smooth());
+
+        canvas.addEventHandler(MouseEvent.MOUSE_PRESSED, e -> canvas.drawLive(
+                strokes.begin(toArgb(colorPicker.getValue()), (float) sizeSlider.getValue(), eraserBtn.isSelected(),
+                        (float) e.getX(), (float) e.getY())));
 
         canvas.addEventHandler(MouseEvent.MOUSE_DRAGGED, e -> {
-            gc.lineTo(e.getX(), e.getY());
-            gc.stroke();
-
-            Map<String, Object> drag = new HashMap<>();
-            drag.put("m", "drag");
-            drag.put("x", e.getX());
-            drag.put("y", e.getY());
-            events.add(drag);
+            if (strokes.current() == null) return;
+            strokes.extend((float) e.getX(), (float) e.getY());
+            canvas.drawLive(strokes.current());
         });
 
         canvas.addEventHandler(MouseEvent.MOUSE_RELEASED, e -> {
-            Map<String, Object> up = new HashMap<>();
-            up.put("m", "up");
-            events.add(up);
+            Stroke done = strokes.end();
+            if (done == null) return;
+            canvas.commit(done);
+            history.added(done);
         });
     }
 
-    private void clearCanvas() {
-        if (gc == null) return;
-        gc.setFill(Color.WHITE);
-        gc.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
-    }
-
-    private void redrawFromEvents() {
-        if (gc == null) return;
-        clearCanvas();
-
-        boolean pathOpen = false;
-        for (Map<String, Object> ev : events) {
-            String m = String.valueOf(ev.get("m"));
-            if ("down".equals(m)) {
-                if (pathOpen) { gc.closePath(); pathOpen = false; }
-                double x = toD(ev.get("x"), 0), y = toD(ev.get("y"), 0);
-                double w = toD(ev.get("w"), 3);
-                boolean er = toB(ev.get("er"), false);
-                String c = ev.get("c") == null ? "#000000" : String.valueOf(ev.get("c"));
-
-                gc.setLineWidth(w);
-                gc.setStroke(er ? Color.WHITE : Color.web(c));
-                gc.beginPath();
-                gc.moveTo(x, y);
-                gc.stroke();
-                pathOpen = true;
-            } else if ("drag".equals(m)) {
-                double x = toD(ev.get("x"), 0), y = toD(ev.get("y"), 0);
-                gc.lineTo(x, y);
-                gc.stroke();
-            } else if ("up".equals(m)) {
-                if (pathOpen) { gc.closePath(); pathOpen = false; }
-            }
-        }
-        if (pathOpen) gc.closePath();
-    }
-
-    private String serializeEvents() throws Exception {
-        if (events.isEmpty()) return "";
-        return M.writeValueAsString(events);
-    }
-
     // ---------- Handlers ----------
     private void setupEventHandlers() {
         saveBtn.setOnAction(e -> {
@@ -480,6 +471,15 @@ public class NoteEditorPage extends BorderPane {
 
         textToggle.selectedProperty().addListener((obs, oldVal, newVal) -> { if (newVal) switchMode("text"); });
         drawToggle.selectedProperty().addListener((obs, oldVal, newVal) -> { if (newVal) switchMode("draw"); });
+
+        // Drawing undo/redo; in text mode the HTML editor keeps its own shortcuts
+        addEventFilter(KeyEvent.KEY_PRESSED, e -> {
+            if (!"draw".equals(mode) || !e.isShortcutDown()) return;
+            if (e.getCode() == KeyCode.Z && !e.isShiftDown()) history.undo();
+            else if (e.getCode() == KeyCode.Y || (e.getCode() == KeyCode.Z && e.isShiftDown())) history.redo();
+            else return;
+            e.consume();
+        });
     }
 
     private void switchMode(String newMode) {
@@ -503,6 +503,7 @@ public class NoteEditorPage extends BorderPane {
         titleField.setText(existing.title() == null ? "" : existing.title());
         if (existing.textHtml() != null) {
             htmlEditor.setHtmlText(existing.textHtml());
+            hasText = true;
         }
         favoriteBtn.setText(existing.favorite() ? "Unfavorite" : "Favorite");
 
@@ -516,60 +517,95 @@ public class NoteEditorPage extends BorderPane {
         String dj = existing.drawingJson();
         if (dj != null && !dj.isBlank()) {
             try {
-                List<Map<String, Object>> parsed = M.readValue(
-                        dj, new TypeReference<List<Map<String, Object>>>() {});
-                events.clear();
-                events.addAll(parsed);
-                redrawFromEvents();
+                strokes.setAll(StrokeCodec.decode(dj));
+                canvas.load(strokes.strokes(), existing.id() + ":" + dj.length() + ":" + dj.hashCode());
+                history.reset();
             } catch (Exception ex) {
                 System.err.println("Failed to parse drawingJson: " + ex.getMessage());
+                // Saving now would overwrite a drawing we couldn't read
+                autosave.hold();
+                saveBtn.setDisable(true);
+                return;
             }
         }
+        autosave.setBase(existing.id(), draft());
     }
 
-    private void handleSave() {
-        try {
-            String title = titleField.getText();
-            String textHtml = "text".equals(mode) ? htmlEditor.getHtmlText() : null;
-            String drawingJson = "draw".equals(mode) ? serializeEvents() : null;
-
-            String tagName = tagNameField.getText();
-            String tagColor = (tagColorPicker.getValue() == null) ? null : toHex(tagColorPicker.getValue());
+    /** What a save would send right now; text and drawing are kept whichever mode is showing. */
+    private NoteAutosave.Draft draft() {
+        boolean textMode = "text".equals(mode);
+        String textHtml = (textMode || hasText) ? htmlEditor.getHtmlText() : null;
+        boolean keepDrawing = !textMode || !strokes.strokes().isEmpty();
+        String tagColor = (tagColorPicker.getValue() == null) ? null : toHex(tagColorPicker.getValue());
+        return new NoteAutosave.Draft(titleField.getText(), textHtml, keepDrawing ? strokes.strokes() : null,
+                tagNameField.getText(), tagColor);
+    }
 
-            if (noteId == null) {
-                var n = NoteApi.create(title, textHtml, drawingJson, tagName, tagColor);
-                noteId = n.id();
+    private void handleSave() {
+        boolean creating = autosave.noteId() == null;
+        saveBtn.setDisable(true);
+        autosave.flush().whenCompleteAsync((n, ex) -> {
+            saveBtn.setDisable(false);
+            if (ex != null) {
+                showModernError("Save Failed", "Failed to save note: " + ApiClient.unwrap(ex).getMessage());
+            } else if (creating && autosave.noteId() != null) {
                 showModernInfo("Note Created", "Your note has been successfully created!");
             } else {
-                NoteApi.update(noteId, title, textHtml, drawingJson, tagName, tagColor);
                 showModernInfo("Note Saved", "Your changes have been saved successfully!");
             }
-        } catch (Exception ex) {
-            showModernError("Save Failed", "Failed to save note: " + ex.getMessage());
-        }
+        }, ApiClient.FX);
+    }
+
+    /** Edits autosave after a short pause; closing the editor saves anything still pending. */
+    private void setupAutosave() {
+        autosave.setOnSaved(n -> noteId = n.id());
+        autosave.setOnState(state -> saveStatus.setText(switch (state) {
+            case SAVED -> noteId == null ? "" : "All changes saved";
+            case DIRTY -> "Unsaved changes";
+            case SAVING -> "Saving…";
+            case FAILED -> "Save failed";
+        }));
+
+        titleField.textProperty().addListener((o, a, b) -> autosave.changed());
+        tagNameField.textProperty().addListener((o, a, b) -> autosave.changed());
+        tagColorPicker.valueProperty().addListener((o, a, b) -> autosave.changed());
+        htmlEditor.addEventHandler(KeyEvent.KEY_RELEASED, e -> {
+            hasText = true;
+            autosave.changed();
+        });
+        htmlEditor.addEventHandler(MouseEvent.MOUSE_RELEASED, e -> autosave.changed());
+
+        sceneProperty().addListener((o, oldScene, scene) -> {
+            if (scene == null) return;
+            scene.windowProperty().addListener((o2, oldWindow, window) -> {
+                if (window != null) window.addEventHandler(WindowEvent.WINDOW_HIDING, e -> autosave.flush());
+            });
+        });
     }
 
     private void handleFavorite(Button favoriteBtn) {
         if (noteId == null) return;
-        try {
-            boolean toValue = favoriteBtn.getText().contains("Unfavorite") ? false : true;
-            var n = NoteApi.setFavorite(noteId, toValue);
+        boolean toValue = favoriteBtn.getText().contains("Unfavorite") ? false : true;
+        NoteApi.setFavorite(noteId, toValue).whenCompleteAsync((n, ex) -> {
+            if (ex != null) {
+                showModernError("Favorite Failed", "Failed to update favorite status: " + ApiClient.unwrap(ex).getMessage());
+                return;
+            }
             favoriteBtn.setText(n.favorite() ? "Unfavorite" : "Favorite");
             showModernInfo("Favorite Updated",
                     n.favorite() ? "Note added to favorites!" : "Note removed from favorites!");
-        } catch (Exception ex) {
-            showModernError("Favorite Failed", "Failed to update favorite status: " + ex.getMessage());
-        }
+        }, ApiClient.FX);
     }
 
     private void handleTrash() {
         if (noteId == null) return;
-        try {
-            NoteApi.setTrashed(noteId, true);
+        NoteApi.setTrashed(noteId, true).whenCompleteAsync((n, ex) -> {
+            if (ex != null) {
+                showModernError("Trash Failed", "Failed to move note to trash: " + ApiClient.unwrap(ex).getMessage());
+                return;
+            }
             showModernInfo("Moved to Trash", "Note has been moved to trash successfully!");
-        } catch (Exception ex) {
-            showModernError("Trash Failed", "Failed to move note to trash: " + ex.getMessage());
-        }
+        }, ApiClient.FX);
     }
 
     // ---------- Export ----------
@@ -643,7 +679,7 @@ public class NoteEditorPage extends BorderPane {
                 file = new File(file.getParentFile(), file.getName() + ".png");
             }
 
-            BufferedImage bi = SwingFXUtils.fromFXImage(canvas.snapshot(null, null), null);
+            BufferedImage bi = SwingFXUtils.fromFXImage(canvas.snapshotVisible(), null);
             ImageIO.write(bi, "png", file);
             showModernInfo("Exported", "Saved: " + file.getName());
         } catch (Exception ex) {
@@ -664,7 +700,7 @@ public class NoteEditorPage extends BorderPane {
             }
 
             BufferedImage textImg = snapshotNodeToImage(getTextSnapshotNode(), 2.0);
-            BufferedImage drawImg = SwingFXUtils.fromFXImage(canvas.snapshot(null, null), null);
+            BufferedImage drawImg = SwingFXUtils.fromFXImage(canvas.snapshotVisible(), null);
 
             try (PDDocument doc = new PDDocument()) {
                 addImageAsPdfPage(doc, textImg);
@@ -851,16 +887,12 @@ public class NoteEditorPage extends BorderPane {
         return String.format("#%02X%02X%02X", r, g, b);
     }
 
-    private static double toD(Object o, double def) {
-        if (o == null) return def;
-        try { return (o instanceof Number n) ? n.doubleValue() : Double.parseDouble(String.valueOf(o)); }
-        catch (Exception e) { return def; }
-    }
-    private static boolean toB(Object o, boolean def) {
-        if (o == null) return def;
-        if (o instanceof Boolean b) return b;
-        String s = String.valueOf(o).toLowerCase();
-        return "true".equals(s) || "1".equals(s) || "yes".equals(s);
+    private static int toArgb(Color c) {
+        int a = (int) Math.round(c.getOpacity() * 255);
+        int r = (int) Math.round(c.getRed() * 255);
+        int g = (int) Math.round(c.getGreen() * 255);
+        int b = (int) Math.round(c.getBlue() * 255);
+        return a << 24 | r << 16 | g << 8 | b;
     }
 
     private void showModernError(String title, String message) {
@@ -3,7 +3,6 @@ package com.example.noteflowfrontend.pages;
 import com.example.noteflowfrontend.core.ApiClient;
 import com.example.noteflowfrontend.core.JwtUtil;
 import com.example.noteflowfrontend.core.dto.UserProfileDto;
-import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.control.*;
@@ -262,35 +261,33 @@ public class ProfilePage extends BorderPane {
     private void loadProfile() {
         setLoadingState(true);
 
-        new Thread(() -> {
-            try {
-                Long uid = JwtUtil.extractUserIdFromBearer();
-                if (uid == null) throw new RuntimeException("No userId in token");
-
-                UserProfileDto dto = ApiClient.get("/users/" + uid, UserProfileDto.class);
-
-                Platform.runLater(() -> {
-                    username.setText(dto.username());
-                    email.setText(dto.email());
-
-                    lastPhone = dto.phone() == null ? "" : dto.phone();
-                    lastAvatarUrl = dto.avatarUrl() == null ? "" : dto.avatarUrl();
-
-                    phone.setText(lastPhone);
-                    avatarUrl.setText(lastAvatarUrl);
-                    loadImagePreview(lastAvatarUrl);
-
-                    checkDirty();
-                    setLoadingState(false);
-                });
-            } catch (Exception ex) {
-                Platform.runLater(() -> {
-                    setLoadingState(false);
-                    showAlert(Alert.AlertType.ERROR, "Load Error",
-                            "Failed to load profile: " + ex.getMessage());
-                });
+        Long uid = JwtUtil.extractUserIdFromBearer();
+        if (uid == null) {
+            setLoadingState(false);
+            showAlert(Alert.AlertType.ERROR, "Load Error", "Failed to load profile: No userId in token");
+            return;
+        }
+
+        ApiClient.getAsync("/users/" + uid, UserProfileDto.class).whenCompleteAsync((dto, ex) -> {
+            if (ex != null) {
+                setLoadingState(false);
+                showAlert(Alert.AlertType.ERROR, "Load Error",
+                        "Failed to load profile: " + ApiClient.unwrap(ex).getMessage());
+                return;
             }
-        }).start();
+            username.setText(dto.username());
+            email.setText(dto.email());
+
+            lastPhone = dto.phone() == null ? "" : dto.phone();
+            lastAvatarUrl = dto.avatarUrl() == null ? "" : dto.avatarUrl();
+
+            phone.setText(lastPhone);
+            avatarUrl.setText(lastAvatarUrl);
+            loadImagePreview(lastAvatarUrl);
+
+            checkDirty();
+            setLoadingState(false);
+        }, ApiClient.FX);
     }
 
 
@@ -306,28 +303,26 @@ public class ProfilePage extends BorderPane {
 
         setLoadingState(true);
 
-        new Thread(() -> {
-            try {
-                Long uid = JwtUtil.extractUserIdFromBearer();
-                if (uid == null) throw new RuntimeException("No userId in token");
-
-                UserProfileDto dto = ApiClient.put("/users/" + uid, body, UserProfileDto.class);
-
-                Platform.runLater(() -> {
-                    lastAvatarUrl = dto.avatarUrl() == null ? "" : dto.avatarUrl();
-                    lastPhone = dto.phone() == null ? "" : dto.phone();
-                    loadImagePreview(dto.avatarUrl());
-                    checkDirty();
-                    setLoadingState(false);
-                    showAlert(Alert.AlertType.INFORMATION, "Success", "Profile updated successfully!");
-                });
-            } catch (Exception ex) {
-                Platform.runLater(() -> {
-                    setLoadingState(false);
-                    showAlert(Alert.AlertType.ERROR, "Save Error", "Failed to save profile: " + ex.getMessage());
-                });
+        Long uid = JwtUtil.extractUserIdFromBearer();
+        if (uid == null) {
+            setLoadingState(false);
+            showAlert(Alert.AlertType.ERROR, "Save Error", "Failed to save profile: No userId in token");
+            return;
+        }
+
+        ApiClient.putAsync("/users/" + uid, body, UserProfileDto.class).whenCompleteAsync((dto, ex) -> {
+            if (ex != null) {
+                setLoadingState(false);
+                showAlert(Alert.AlertType.ERROR, "Save Error", "Failed to save profile: " + ApiClient.unwrap(ex).getMessage());
+                return;
             }
-        }).start();
+            lastAvatarUrl = dto.avatarUrl() == null ? "" : dto.avatarUrl();
+            lastPhone = dto.phone() == null ? "" : dto.phone();
+            loadImagePreview(dto.avatarUrl());
+            checkDirty();
+            setLoadingState(false);
+            showAlert(Alert.AlertType.INFORMATION, "Success", "Profile updated successfully!");
+        }, ApiClient.FX);
     }
 
     private void chooseLocalImage() {
@@ -1,6 +1,7 @@
 package com.example.noteflowfrontend.pages;
 
 import com.example.noteflowfrontend.core.Auth;
+import com.example.noteflowfrontend.core.Tasks;
 import com.example.noteflowfrontend.shell.Router;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
@@ -17,6 +18,7 @@ import javafx.scene.text.Text;
 
 public class SignupPage {
     private final BorderPane root = new BorderPane();
+    private final Tasks.Scope tasks = Tasks.scope(root);
 
     public SignupPage(Router router) {
         root.setStyle("-fx-font-family: 'SF Pro Display', 'San Francisco', 'Helvetica Neue', 'Arial', sans-serif; -fx-font-size: 12px;");
@@ -181,27 +183,21 @@ public class SignupPage {
             signup.setOpacity(0.8);
             signup.setStyle(signup.getStyle().replace("-fx-cursor: hand;", "-fx-cursor: default;"));
 
-            // Simulate async operation with a new thread
-            new Thread(() -> {
-                boolean ok = Auth.register(u, em, pw);
-
-                // Update UI on JavaFX Application Thread
-                javafx.application.Platform.runLater(() -> {
-                    // Hide spinner and restore button state
-                    spinner.setVisible(false);
-                    spinner.setManaged(false);
-                    signup.setDisable(false);
-                    buttonText.setText("Sign Up");
-                    signup.setOpacity(1.0);
-                    signup.setStyle(signup.getStyle().replace("-fx-cursor: default;", "-fx-cursor: hand;"));
-
-                    if (ok) {
-                        router.navigate("folders");
-                    } else {
-                        msg.setText("Sign up failed. Username or email may already be taken.");
-                    }
-                });
-            }).start();
+            tasks.run(() -> Auth.register(u, em, pw), (ok, ex) -> {
+                // Hide spinner and restore button state
+                spinner.setVisible(false);
+                spinner.setManaged(false);
+                signup.setDisable(false);
+                buttonText.setText("Sign Up");
+                signup.setOpacity(1.0);
+                signup.setStyle(signup.getStyle().replace("-fx-cursor: default;", "-fx-cursor: hand;"));
+
+                if (Boolean.TRUE.equals(ok)) {
+                    router.navigate("folders");
+                } else {
+                    msg.setText("Sign up failed. Username or email may already be taken.");
+                }
+            });
         });
 
         var linkContainer = new HBox(toLogin);
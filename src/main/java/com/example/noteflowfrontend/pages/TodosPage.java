@@ -2,7 +2,9 @@ package com.example.noteflowfrontend.pages;
 
 import com.example.noteflowfrontend.core.ApiClient;
 import com.example.noteflowfrontend.core.JwtUtil;
+import com.example.noteflowfrontend.core.TodoApi;
 import com.example.noteflowfrontend.core.dto.ToDoListDto;
+import com.example.noteflowfrontend.shell.Page;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
@@ -17,7 +19,7 @@ import javafx.scene.effect.DropShadow;
 import java.time.LocalDateTime;
 import java.util.Objects;
 
-public class TodosPage extends BorderPane {
+public class TodosPage extends BorderPane implements Page {
 
     private final ObservableList<ToDoListDto> tasks = FXCollections.observableArrayList();
     private final TableView<ToDoListDto> table = new TableView<>();
@@ -58,12 +60,16 @@ public class TodosPage extends BorderPane {
 
         initializeTable();
         initializeForm();
-        loadTasks();
 
         // NEW: keep form in sync with selection so Update works
         hookSelectionToForm();
     }
 
+    @Override
+    public void onShow() {
+        loadTasks();
+    }
+
     /* --------------------
      * UI BUILD
      * -------------------- */
@@ -448,23 +454,17 @@ public class TodosPage extends BorderPane {
             if (statusBox.getValue() == null)       { toastError("Status is required"); return; }
             if (importanceBox.getValue() == null)   { toastError("Importance is required"); return; }
 
-            Long uid = JwtUtil.extractUserIdFromBearer();
-            if (uid == null) { toastError("You are not logged in (no userId in JWT)."); return; }
-
             LocalDateTime s = startDatePicker.getValue() == null ? null : startDatePicker.getValue().atStartOfDay();
             LocalDateTime e = endDatePicker.getValue() == null ? null : endDatePicker.getValue().atStartOfDay();
 
-            var payload = new java.util.HashMap<String, Object>();
-            payload.put("taskName", taskNameField.getText());
-            payload.put("status", statusBox.getValue());
-            payload.put("startDate", s);
-            payload.put("endDate", e);
-            payload.put("taskImportance", importanceBox.getValue());
-            payload.put("user", java.util.Map.of("userId", uid));
-
-            ToDoListDto created = ApiClient.post("/todo", payload, ToDoListDto.class);
-            tasks.add(0, created);
-            clearForm();
+            TodoApi.create(taskNameField.getText(), statusBox.getValue(), importanceBox.getValue(), s, e).whenCompleteAsync((created, ex) -> {
+                if (ex != null) {
+                    toastError("Error creating task: " + ApiClient.unwrap(ex).getMessage());
+                    return;
+                }
+                tasks.add(0, created);
+                clearForm();
+            }, ApiClient.FX);
         } catch (Exception ex) {
             toastError("Error creating task: " + ex.getMessage());
             ex.printStackTrace();
@@ -480,35 +480,31 @@ public class TodosPage extends BorderPane {
             if (statusBox.getValue() == null)       { toastError("Status is required"); return; }
             if (importanceBox.getValue() == null)   { toastError("Importance is required"); return; }
 
-            Long uid = JwtUtil.extractUserIdFromBearer();
-            if (uid == null) { toastError("You are not logged in (no userId in JWT)."); return; }
-
             LocalDateTime s = startDatePicker.getValue() == null ? null : startDatePicker.getValue().atStartOfDay();
             LocalDateTime e = endDatePicker.getValue() == null ? null : endDatePicker.getValue().atStartOfDay();
 
-            var payload = new java.util.HashMap<String, Object>();
-            payload.put("taskId", selected.getTaskId()); // NEW: include id in body (many APIs require this)
-            payload.put("taskName", taskNameField.getText());
-            payload.put("status", statusBox.getValue());
-            payload.put("startDate", s);
-            payload.put("endDate", e);
-            payload.put("taskImportance", importanceBox.getValue());
-            payload.put("user", java.util.Map.of("userId", uid));
+            ToDoListDto edited = new ToDoListDto(selected.getTaskId(), taskNameField.getText(), statusBox.getValue(),
+                    s, e, importanceBox.getValue(), selected.getUserID());
 
-            ToDoListDto updated = ApiClient.put("/todo/" + selected.getTaskId(), payload, ToDoListDto.class);
+            TodoApi.update(edited).whenCompleteAsync((updated, ex) -> {
+                if (ex != null) {
+                    toastError("Error updating task: " + ApiClient.unwrap(ex).getMessage());
+                    return;
+                }
 
-            int idx = findIndexById(selected.getTaskId());
-            if (idx >= 0) {
-                tasks.set(idx, updated);
-            } else {
-                // Fallback: reload if we can’t find it (e.g., filtered different backing instance)
-                loadTasks();
-            }
+                int idx = findIndexById(selected.getTaskId());
+                if (idx >= 0) {
+                    tasks.set(idx, updated);
+                } else {
+                    // Fallback: reload if we can’t find it (e.g., filtered different backing instance)
+                    loadTasks();
+                }
 
-            // Keep selection on the updated item (nice UX)
-            table.getSelectionModel().clearSelection();
-            table.getSelectionModel().select(updated);
-            clearForm();
+                // Keep selection on the updated item (nice UX)
+                table.getSelectionModel().clearSelection();
+                table.getSelectionModel().select(updated);
+                clearForm();
+            }, ApiClient.FX);
         } catch (Exception ex) {
             toastError("Error updating task: " + ex.getMessage());
             ex.printStackTrace();
@@ -525,11 +521,15 @@ public class TodosPage extends BorderPane {
         confirm.showAndWait().ifPresent(resp -> {
             if (resp == ButtonType.YES) {
                 try {
-                    Long uid = JwtUtil.extractUserIdFromBearer();
-                    if (uid == null) { toastError("You are not logged in (no userId in JWT)."); return; }
-                    ApiClient.delete("/todo/" + selected.getTaskId() + "?userId=" + uid, Void.class);
-                    tasks.removeIf(t -> Objects.equals(t.getTaskId(), selected.getTaskId()));
-                    clearForm();
+                    TodoApi.delete(selected.getTaskId())
+                            .whenCompleteAsync((ignored, ex) -> {
+                                if (ex != null) {
+                                    toastError("Error deleting task: " + ApiClient.unwrap(ex).getMessage());
+                                    return;
+                                }
+                                tasks.removeIf(t -> Objects.equals(t.getTaskId(), selected.getTaskId()));
+                                clearForm();
+                            }, ApiClient.FX);
                 } catch (Exception ex) {
                     toastError("Error deleting task: " + ex.getMessage());
                     ex.printStackTrace();
@@ -551,9 +551,23 @@ public class TodosPage extends BorderPane {
         try {
             Long uid = JwtUtil.extractUserIdFromBearer();
             if (uid == null) { toastError("You are not logged in (no userId in JWT)."); return; }
-            ToDoListDto[] all = ApiClient.get("/todo/user/" + uid, ToDoListDto[].class);
-            tasks.setAll(all);
-            applyFilter(currentFilterKey());
+            // Paint what was last fetched (possibly by the prefetcher) while the list revalidates
+            if (tasks.isEmpty() && !TodoApi.cached().isEmpty()) {
+                tasks.setAll(TodoApi.cached());
+                applyFilter(currentFilterKey());
+            }
+            TodoApi.list().whenCompleteAsync((all, ex) -> {
+                if (ex != null) {
+                    toastError("Error loading tasks: " + ApiClient.unwrap(ex).getMessage());
+                    return;
+                }
+                // Refreshing a kept page: keep the task being edited selected
+                ToDoListDto selected = table.getSelectionModel().getSelectedItem();
+                tasks.setAll(all);
+                applyFilter(currentFilterKey());
+                int index = selected == null ? -1 : findIndexById(selected.getTaskId());
+                if (index >= 0) table.getSelectionModel().select(tasks.get(index));
+            }, ApiClient.FX);
         } catch (Exception e) {
             toastError("Error loading tasks: " + e.getMessage());
             e.printStackTrace();
@@ -1,8 +1,11 @@
 package com.example.noteflowfrontend.pages;
 
+import com.example.noteflowfrontend.core.ApiClient;
 import com.example.noteflowfrontend.core.NoteApi;
-import com.example.noteflowfrontend.core.dto.NoteDto;
-import javafx.animation.FadeTransition;
+import com.example.noteflowfrontend.core.dto.NoteSummary;
+import com.example.noteflowfrontend.shell.Page;
+import com.example.noteflowfrontend.ui.SelectionBar;
+import com.example.noteflowfrontend.ui.VirtualCardGrid;
 import javafx.animation.ScaleTransition;
 import javafx.application.Platform;
 import javafx.geometry.Insets;
@@ -11,11 +14,17 @@ import javafx.scene.control.*;
 import javafx.scene.layout.*;
 import javafx.util.Duration;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
-public class TrashPage extends BorderPane {
-    private final FlowPane cardGrid = new FlowPane(16, 16);
+public class TrashPage extends BorderPane implements Page {
+    private final VirtualCardGrid<NoteSummary> cardGrid = new VirtualCardGrid<>(220, 220, 16, this::createNoteCard);
     private final Label emptyStateLabel = new Label("Trash is empty. Deleted notes will appear here.");
+    private int loadGeneration;
 
     public TrashPage() {
         setPadding(new Insets(24));
@@ -23,10 +32,18 @@ public class TrashPage extends BorderPane {
 
         setupHeader();
         setupMainContent();
+    }
 
+    @Override
+    public void onShow() {
         reload();
     }
 
+    @Override
+    public void onHide() {
+        ++loadGeneration;
+    }
+
     // --- Helper: always run code on the FX thread ---
     private void runFx(Runnable r) {
         if (Platform.isFxApplicationThread()) r.run();
@@ -60,7 +77,13 @@ public class TrashPage extends BorderPane {
             reload();
         });
 
-        HBox buttonGroup = new HBox(refreshBtn);
+        Button emptyBtn = createModernButton("Empty Trash", "#FEF2F2", "#FEE2E2");
+        emptyBtn.setOnAction(e -> {
+            animateButtonPress(emptyBtn);
+            emptyTrash();
+        });
+
+        HBox buttonGroup = new HBox(8, emptyBtn, refreshBtn);
         buttonGroup.setAlignment(Pos.CENTER_RIGHT);
 
         var topSection = new HBox(24, titleBox, new Region(), buttonGroup);
@@ -80,60 +103,114 @@ public class TrashPage extends BorderPane {
         """);
         emptyStateLabel.setAlignment(Pos.CENTER);
 
-        cardGrid.setPadding(new Insets(8));
-        cardGrid.setAlignment(Pos.TOP_LEFT);
-        cardGrid.setPrefWrapLength(0); // Allow wrapping
-
-        var scroller = new ScrollPane(cardGrid);
-        scroller.setFitToWidth(true);
-        scroller.setStyle("""
-            -fx-background: transparent;
-            -fx-background-color: transparent;
-            -fx-border-color: transparent;
-        """);
-        scroller.setHbarPolicy(ScrollPane.ScrollBarPolicy.NEVER);
-        scroller.setVbarPolicy(ScrollPane.ScrollBarPolicy.AS_NEEDED);
+        SelectionBar<NoteSummary> selectionBar = new SelectionBar<>(cardGrid);
+        selectionBar.addAction("Restore", selected -> removeBatch(NoteApi.BatchAction.RESTORE, selected));
+        selectionBar.addAction("Delete Forever", selected -> removeBatch(NoteApi.BatchAction.DELETE, selected));
 
-        setCenter(scroller);
+        VBox content = new VBox(12, selectionBar, cardGrid);
+        VBox.setVgrow(cardGrid, Priority.ALWAYS);
+        setCenter(content);
     }
 
     private void reload() {
-        // These UI touches must always be on the FX thread
-        runFx(() -> {
-            cardGrid.getChildren().clear();
-            cardGrid.getChildren().add(createLoadingIndicator());
-        });
-
-        new Thread(() -> {
-            try {
-                List<NoteDto> notes = NoteApi.listTrash();
-                Platform.runLater(() -> {
-                    cardGrid.getChildren().clear();
-                    if (notes.isEmpty()) {
-                        showEmptyState();
-                    } else {
-                        notes.forEach(n -> {
-                            VBox noteCard = createNoteCard(n);
-                            cardGrid.getChildren().add(noteCard);
-
-                            // Add subtle entrance animation
-                            FadeTransition fade = new FadeTransition(Duration.millis(200), noteCard);
-                            fade.setFromValue(0.0);
-                            fade.setToValue(1.0);
-                            fade.play();
-                        });
+        int generation = ++loadGeneration;
+        // Render straight from the local store, then revalidate against the server
+        List<NoteSummary> cachedNotes = NoteApi.cachedSummaries(NoteApi.TRASH);
+        if (!cachedNotes.isEmpty()) {
+            renderNotes(cachedNotes);
+        } else if (cardGrid.items().isEmpty()) {
+            // These UI touches must always be on the FX thread
+            runFx(() -> cardGrid.showMessage(createLoadingIndicator()));
+        }
+
+        NoteApi.listTrashSummaries()
+                .thenAcceptAsync(notes -> {
+                    if (generation != loadGeneration) return;
+                    if (cachedNotes.isEmpty() || !cachedNotes.equals(notes)) renderNotes(notes);
+                }, ApiClient.FX)
+                .exceptionallyAsync(ex -> {
+                    if (generation != loadGeneration) return null;
+                    if (!cachedNotes.isEmpty()) {
+                        // Offline: keep showing the cached notes
+                        System.err.println("Refresh failed: " + ApiClient.unwrap(ex).getMessage());
+                        return null;
                     }
-                });
-            } catch (Exception ex) {
-                Platform.runLater(() -> {
-                    cardGrid.getChildren().clear();
-                    showErrorState(ex);
-                });
-            }
-        }).start();
+                    showErrorState(ApiClient.unwrap(ex));
+                    return null;
+                }, ApiClient.FX);
+    }
+
+    private void renderNotes(List<NoteSummary> notes) {
+        if (notes.isEmpty()) {
+            showEmptyState();
+        } else {
+            cardGrid.setAll(notes);
+        }
+    }
+
+    /**
+     * Drops the card as soon as the user acts, instead of fetching the trash again once
+     * {@code request} is done; the card comes back if the server refuses.
+     */
+    private void removeThen(NoteSummary note, CompletableFuture<?> request) {
+        List<NoteSummary> before = removeCards(List.of(note));
+        request.exceptionallyAsync(ex -> {
+            restoreCards(before, Set.of(note.id()));
+            showErr(ApiClient.unwrap(ex));
+            return null;
+        }, ApiClient.FX);
     }
 
-    private VBox createNoteCard(NoteDto note) {
+    /** Drops the cards for {@code gone} at once; returns the cards as they were, for {@link #restoreCards}. */
+    private List<NoteSummary> removeCards(Collection<NoteSummary> gone) {
+        ++loadGeneration; // a reload still in flight predates this change
+        List<NoteSummary> before = cardGrid.items();
+        List<NoteSummary> next = new ArrayList<>(before);
+        if (next.removeAll(gone)) renderNotes(next);
+        return before;
+    }
+
+    /** Puts the cards with {@code ids} back where they were in {@code before}, e.g. when the server refused. */
+    private void restoreCards(List<NoteSummary> before, Set<Long> ids) {
+        List<NoteSummary> next = new ArrayList<>(cardGrid.items());
+        for (int i = 0; i < before.size(); i++) {
+            NoteSummary note = before.get(i);
+            if (ids.contains(note.id()) && indexOf(next, note.id()) < 0) next.add(Math.min(i, next.size()), note);
+        }
+        renderNotes(next);
+    }
+
+    private static int indexOf(List<NoteSummary> notes, Long id) {
+        for (int i = 0; i < notes.size(); i++) {
+            if (notes.get(i).id().equals(id)) return i;
+        }
+        return -1;
+    }
+
+    /** Drops the selected cards and sends one batch; any the server refuses come back. */
+    private void removeBatch(NoteApi.BatchAction action, List<NoteSummary> selected) {
+        Set<Long> ids = new LinkedHashSet<>();
+        for (NoteSummary n : selected) ids.add(n.id());
+        List<NoteSummary> before = removeCards(selected);
+        NoteApi.batch(action, ids).whenCompleteAsync((result, ex) -> {
+            if (ex == null && result.failed().isEmpty()) return;
+            restoreCards(before, ex != null ? ids : result.failed().keySet());
+            showErr(ex != null ? ApiClient.unwrap(ex) : new IllegalStateException(result.describe(ids.size())));
+        }, ApiClient.FX);
+    }
+
+    private void emptyTrash() {
+        List<NoteSummary> all = cardGrid.items();
+        if (all.isEmpty()) return;
+        Alert confirm = new Alert(Alert.AlertType.CONFIRMATION,
+                "Permanently delete all " + all.size() + " notes in the trash?", ButtonType.YES, ButtonType.NO);
+        confirm.setHeaderText("Empty Trash");
+        confirm.showAndWait().ifPresent(resp -> {
+            if (resp == ButtonType.YES) removeBatch(NoteApi.BatchAction.DELETE, all);
+        });
+    }
+
+    private VBox createNoteCard(NoteSummary note) {
         // Note title
         Label title = new Label(note.title() == null ? "Untitled Note" : note.title());
         title.setStyle("""
@@ -146,7 +223,7 @@ public class TrashPage extends BorderPane {
         title.setMaxWidth(180);
 
         // Note type indicator
-        String typeIcon = note.drawingJson() != null ? "Drawing" : "Text Note";
+        String typeIcon = note.hasDrawing() ? "Drawing" : "Text Note";
         Label typeLabel = new Label(typeIcon);
         typeLabel.setStyle("""
             -fx-font-size: 12px;
@@ -174,31 +251,11 @@ public class TrashPage extends BorderPane {
 
         MenuItem restoreItem = new MenuItem("Restore");
         restoreItem.setStyle("-fx-font-family: 'SF Pro Text', 'Segoe UI', system-ui;");
-        restoreItem.setOnAction(e -> {
-            new Thread(() -> {
-                try {
-                    NoteApi.setTrashed(note.id(), false);
-                    // Call reload from FX thread
-                    Platform.runLater(this::reload);
-                } catch (Exception ex) {
-                    showErr(ex);
-                }
-            }).start();
-        });
+        restoreItem.setOnAction(e -> removeThen(note, NoteApi.setTrashed(note.id(), false)));
 
         MenuItem deleteForeverItem = new MenuItem("Delete Forever");
         deleteForeverItem.setStyle("-fx-font-family: 'SF Pro Text', 'Segoe UI', system-ui;");
-        deleteForeverItem.setOnAction(e -> {
-            new Thread(() -> {
-                try {
-                    NoteApi.deletePermanent(note.id());
-                    // Call reload from FX thread
-                    Platform.runLater(this::reload);
-                } catch (Exception ex) {
-                    showErr(ex);
-                }
-            }).start();
-        });
+        deleteForeverItem.setOnAction(e -> removeThen(note, NoteApi.deletePermanent(note.id())));
 
         contextMenu.getItems().addAll(restoreItem, deleteForeverItem);
 
@@ -357,10 +414,10 @@ public class TrashPage extends BorderPane {
         """);
 
         emptyState.getChildren().addAll(icon, title, subtitle);
-        cardGrid.getChildren().add(emptyState);
+        cardGrid.showMessage(emptyState);
     }
 
-    private void showErrorState(Exception ex) {
+    private void showErrorState(Throwable ex) {
         VBox errorState = new VBox(16);
         errorState.setAlignment(Pos.CENTER);
         errorState.setPadding(new Insets(60));
@@ -391,10 +448,10 @@ public class TrashPage extends BorderPane {
         });
 
         errorState.getChildren().addAll(icon, title, subtitle, retryBtn);
-        cardGrid.getChildren().add(errorState);
+        cardGrid.showMessage(errorState);
     }
 
-    private void showErr(Exception ex) {
+    private void showErr(Throwable ex) {
         Platform.runLater(() -> {
             Alert alert = new Alert(Alert.AlertType.ERROR);
             alert.setTitle("Error");
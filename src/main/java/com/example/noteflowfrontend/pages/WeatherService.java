@@ -1,7 +1,8 @@
 package com.example.noteflowfrontend.pages;
 
+import com.example.noteflowfrontend.core.Transport;
+
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 
@@ -10,13 +11,12 @@ public class WeatherService {
     private static final String URL = "https://api.open-meteo.com/v1/forecast?latitude=24.6877&longitude=46.7219&hourly=temperature_2m,weather_code&timezone=auto&forecast_days=1";
 
     public static String getWeatherJson() throws Exception {
-        HttpClient client = HttpClient.newHttpClient();
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(URL))
+        // Shared client: no new connection pool or TLS handshake per call
+        HttpRequest request = Transport.request(URI.create(URL))
                 .GET()
                 .build();
 
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> response = Transport.client().send(request, HttpResponse.BodyHandlers.ofString());
         return response.body();
     }
 }
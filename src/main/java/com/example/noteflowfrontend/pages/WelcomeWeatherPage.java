@@ -1,9 +1,9 @@
 package com.example.noteflowfrontend.pages;
 
+import com.example.noteflowfrontend.core.Tasks;
 import com.example.noteflowfrontend.shell.Router;
 import javafx.animation.FadeTransition;
 import javafx.animation.PauseTransition;
-import javafx.application.Platform;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
 import javafx.scene.control.Label;
@@ -67,16 +67,17 @@ public class WelcomeWeatherPage {
         fade.play();
 
         // Fetch weather asynchronously
-        new Thread(() -> {
-            try {
-                String json = WeatherService.getWeatherJson();
-                String temp = WeatherParser.getCurrentTemperatureForHour(json, currentHour);
-                Platform.runLater(() -> weatherLabel.setText("Current Temperature: " + temp));
-            } catch (Exception e) {
-                Platform.runLater(() -> weatherLabel.setText("Failed to load weather"));
-                e.printStackTrace();
+        Tasks.scope(root).run(() -> {
+            String json = WeatherService.getWeatherJson();
+            return WeatherParser.getCurrentTemperatureForHour(json, currentHour);
+        }, (temp, ex) -> {
+            if (ex == null) {
+                weatherLabel.setText("Current Temperature: " + temp);
+            } else {
+                weatherLabel.setText("Failed to load weather");
+                ex.printStackTrace();
             }
-        }).start();
+        });
 
 
         PauseTransition delay = new PauseTransition(Duration.seconds(5));
@@ -1,11 +1,12 @@
 package com.example.noteflowfrontend.shell;
 
+import com.example.noteflowfrontend.core.ApiClient;
 import com.example.noteflowfrontend.core.Auth;
+import com.example.noteflowfrontend.core.Tasks;
 import com.example.noteflowfrontend.pages.WeatherParser;
 import com.example.noteflowfrontend.pages.WeatherService;
 import javafx.animation.KeyFrame;
 import javafx.animation.Timeline;
-import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.control.*;
@@ -337,36 +338,36 @@ public class AppShell extends BorderPane {
         clock.play();
 
 
-        new Thread(() -> {
+        int currentHour = LocalTime.now().getHour();
+        Tasks.submit(Tasks.Priority.BACKGROUND, WeatherService::getWeatherJson).whenCompleteAsync((json, ex) -> {
+            if (ex != null) {
+                tempLabel.setText("Weather unavailable");
+                ApiClient.unwrap(ex).printStackTrace();
+                return;
+            }
             try {
-                int currentHour = LocalTime.now().getHour();
-                String json = WeatherService.getWeatherJson();
                 String temp = WeatherParser.getCurrentTemperatureForHour(json, currentHour);
                 String weatherType = WeatherParser.getWeatherTypeForHour(json, currentHour); // sunny, cloudy, rain
-
-                Platform.runLater(() -> {
-                    tempLabel.setText(temp);
-
-                    String iconPath = switch (weatherType.toLowerCase()) {
-                        case "sunny" -> "/weather_icons/sun.gif";
-                        case "cloudy" -> "/weather_icons/cloudy.gif";
-                        case "rain" -> "/weather_icons/rain.gif";
-                        default -> "/weather_icons/sun.gif";
-                    };
-
-                    InputStream is = getClass().getResourceAsStream(iconPath);
-                    if (is != null) {
-                        weatherIcon.setImage(new Image(is));
-                    } else {
-                        System.out.println("Weather icon not found: " + iconPath);
-                    }
-                });
-
+                tempLabel.setText(temp);
+
+                String iconPath = switch (weatherType.toLowerCase()) {
+                    case "sunny" -> "/weather_icons/sun.gif";
+                    case "cloudy" -> "/weather_icons/cloudy.gif";
+                    case "rain" -> "/weather_icons/rain.gif";
+                    default -> "/weather_icons/sun.gif";
+                };
+
+                InputStream is = getClass().getResourceAsStream(iconPath);
+                if (is != null) {
+                    weatherIcon.setImage(new Image(is));
+                } else {
+                    System.out.println("Weather icon not found: " + iconPath);
+                }
             } catch (Exception e) {
-                Platform.runLater(() -> tempLabel.setText("Weather unavailable"));
+                tempLabel.setText("Weather unavailable");
                 e.printStackTrace();
             }
-        }).start();
+        }, ApiClient.FX);
 
         return topBar;
     }
@@ -408,13 +409,14 @@ public class AppShell extends BorderPane {
         if (res.isEmpty() || res.get() != ButtonType.OK) return;
 
         Auth.logout();
+        if (activeNavBtn != null) setNavButtonStyle(activeNavBtn, false);
         activeNavBtn = null;
-        outlet.getChildren().clear();
+        router.evictAll();
         router.navigate("login");
     }
 
     public void showWelcomePage(String username) {
-        if (!routerHasRoute("welcome-weather")) {
+        if (!router.hasRoute("welcome-weather")) {
             router.mount("welcome-weather", () ->
                     new com.example.noteflowfrontend.pages.WelcomeWeatherPage(router, username).create()
             );
@@ -422,15 +424,6 @@ public class AppShell extends BorderPane {
         router.navigate("welcome-weather");
     }
 
-    private boolean routerHasRoute(String routeName) {
-        try {
-            router.navigate(routeName);
-            return true;
-        } catch (IllegalArgumentException e) {
-            return false;
-        }
-    }
-
     private void setupNavigation() {
         VBox sb = (VBox) getLeft();
         sb.lookupAll(".button").forEach(node -> {
@@ -0,0 +1,14 @@
+package com.example.noteflowfrontend.shell;
+
+/**
+ * Optional lifecycle for routed pages. Cached pages are reused across navigations, so this is
+ * where they refresh what may have changed while they were off screen.
+ */
+public interface Page {
+
+    /** The page was just put into the outlet, including the first time after it was built. */
+    default void onShow() {}
+
+    /** The page was taken out of the outlet; it may be shown again later. */
+    default void onHide() {}
+}
@@ -4,23 +4,121 @@ package com.example.noteflowfrontend.shell;
 import javafx.scene.Node;
 import javafx.scene.layout.StackPane;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
+/**
+ * Swaps pages in the shell's outlet. Each route decides whether its page is rebuilt on every
+ * visit or kept and shown again; kept pages that implement {@link Page} get onShow/onHide calls.
+ */
 public class Router {
+
+    public enum Cache {
+        /** Built once, then reused until {@link #evictAll()}. */
+        SINGLETON,
+        /** Reused while it is among the last {@code lruSize} cached pages visited. */
+        LRU,
+        /** Built again on every visit (e.g. forms that must start empty). */
+        ALWAYS_NEW
+    }
+
+    private record Route(Supplier<Node> factory, Cache cache) {}
+
     private final StackPane outlet;
-    private final Map<String, Supplier<Node>> routes = new HashMap<>();
+    private final Map<String, Route> routes = new HashMap<>();
+    private final Map<String, Node> singletons = new HashMap<>();
+    private final Map<String, Node> recent = new LinkedHashMap<>(16, 0.75f, true);
+    private final List<Consumer<String>> listeners = new ArrayList<>();
+    private int lruSize = 3;
+    private String current;
+    private Node currentPage;
 
     public Router(StackPane outlet) { this.outlet = outlet; }
 
     public void mount(String name, Supplier<Node> factory) {
-        routes.put(name, factory);
+        mount(name, Cache.ALWAYS_NEW, factory);
+    }
+
+    public void mount(String name, Cache cache, Supplier<Node> factory) {
+        routes.put(name, new Route(factory, cache));
+        singletons.remove(name);
+        recent.remove(name);
+    }
+
+    public boolean hasRoute(String name) {
+        return routes.containsKey(name);
+    }
+
+    /** How many {@link Cache#LRU} pages are kept. */
+    public void setLruSize(int lruSize) {
+        this.lruSize = Math.max(0, lruSize);
+        trimRecent();
+    }
+
+    /** Called with the route name on every navigation, before the page is shown. */
+    public void addNavigationListener(Consumer<String> listener) {
+        listeners.add(listener);
+    }
+
+    public String current() {
+        return current;
     }
 
     public void navigate(String name) {
-        Supplier<Node> f = routes.get(name);
-        if (f == null) throw new IllegalArgumentException("Route not found: " + name);
-        outlet.getChildren().setAll(f.get());
+        Route route = routes.get(name);
+        if (route == null) throw new IllegalArgumentException("Route not found: " + name);
+
+        Node page = pageFor(name, route);
+        if (page == currentPage) {
+            // Re-selecting the page on screen just refreshes it
+            if (page instanceof Page p) p.onShow();
+            return;
+        }
+        if (currentPage instanceof Page p) p.onHide();
+
+        current = name;
+        currentPage = page;
+        listeners.forEach(l -> l.accept(name));
+        outlet.getChildren().setAll(page);
+        if (page instanceof Page p) p.onShow();
+    }
+
+    /** Drops every cached page, e.g. on logout so no other user's data outlives the session. */
+    public void evictAll() {
+        if (currentPage instanceof Page p) p.onHide();
+        current = null;
+        currentPage = null;
+        singletons.clear();
+        recent.clear();
+        outlet.getChildren().clear();
+    }
+
+    private Node pageFor(String name, Route route) {
+        return switch (route.cache()) {
+            case SINGLETON -> singletons.computeIfAbsent(name, n -> route.factory().get());
+            case LRU -> {
+                Node page = recent.get(name);
+                if (page == null) {
+                    page = route.factory().get();
+                    recent.put(name, page);
+                    trimRecent();
+                }
+                yield page;
+            }
+            case ALWAYS_NEW -> route.factory().get();
+        };
+    }
+
+    private void trimRecent() {
+        var it = recent.entrySet().iterator();
+        while (recent.size() > lruSize && it.hasNext()) {
+            if (it.next().getValue() == currentPage) continue;
+            it.remove();
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,82 @@
+package com.example.noteflowfrontend.ui;
+
+import javafx.collections.SetChangeListener;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.Region;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Strip above a {@link VirtualCardGrid} that appears while cards are selected: how many, the
+ * page's bulk actions, and Select all / Clear.
+ */
+public class SelectionBar<T> extends HBox {
+    private static final String BUTTON_STYLE = """
+            -fx-background-color: white;
+            -fx-text-fill: #1E293B;
+            -fx-font-size: 13px;
+            -fx-font-weight: 600;
+            -fx-padding: 6px 12px;
+            -fx-background-radius: 8px;
+            -fx-border-color: #CBD5E1;
+            -fx-border-radius: 8px;
+            -fx-cursor: hand;
+            """;
+
+    private final VirtualCardGrid<T> grid;
+    private final Label count = new Label();
+    private final HBox actions = new HBox(8);
+
+    public SelectionBar(VirtualCardGrid<T> grid) {
+        super(12);
+        this.grid = grid;
+
+        count.setStyle("-fx-font-size: 14px; -fx-font-weight: 600; -fx-text-fill: #1D4ED8;");
+        Region spacer = new Region();
+        HBox.setHgrow(spacer, Priority.ALWAYS);
+
+        Button selectAll = button("Select all");
+        selectAll.setOnAction(e -> grid.selectAll());
+        Button clear = button("Clear");
+        clear.setOnAction(e -> grid.selection().clear());
+
+        getChildren().addAll(count, actions, spacer, selectAll, clear);
+        setAlignment(Pos.CENTER_LEFT);
+        setPadding(new Insets(8, 12, 8, 12));
+        setStyle("-fx-background-color: #EFF6FF; -fx-background-radius: 10px;");
+
+        update();
+        grid.selection().addListener((SetChangeListener<T>) c -> update());
+    }
+
+    /** Adds a bulk action; it gets the selected items in display order, and the selection is cleared. */
+    public Button addAction(String text, Consumer<List<T>> action) {
+        Button b = button(text);
+        b.setOnAction(e -> {
+            List<T> selected = grid.selectedItems();
+            grid.selection().clear();
+            if (!selected.isEmpty()) action.accept(selected);
+        });
+        actions.getChildren().add(b);
+        return b;
+    }
+
+    private void update() {
+        int n = grid.selection().size();
+        count.setText(n + " selected");
+        setVisible(n > 0);
+        setManaged(n > 0);
+    }
+
+    private static Button button(String text) {
+        Button b = new Button(text);
+        b.setStyle(BUTTON_STYLE);
+        return b;
+    }
+}
@@ -0,0 +1,238 @@
+package com.example.noteflowfrontend.ui;
+
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.collections.ObservableSet;
+import javafx.collections.SetChangeListener;
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.StackPane;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.function.Function;
+
+/**
+ * Wrapping grid of fixed-size cards that only builds the rows currently on screen.
+ *
+ * Items are chunked into rows of as many cards as fit the width, and the rows go into a
+ * {@link ListView}, whose VirtualFlow creates and recycles cells for the visible rows only.
+ * A recycled row asks {@code cardFactory} for its new cards, so the number of card nodes
+ * depends on the viewport, not on the number of items. A cell keeps the card nodes of the row it
+ * shows, so refreshing or rechunking into the same rows does not rebuild them.
+ *
+ * Cards can be multi-selected: a Ctrl/Cmd-click toggles one, and while any are selected a plain
+ * click toggles too, instead of reaching the card. {@link #selection()} is kept to items still shown.
+ */
+public class VirtualCardGrid<T> extends ListView<List<T>> {
+    private final double cardWidth;
+    private final double gap;
+    private final Function<T, Node> cardFactory;
+    private final List<T> items = new ArrayList<>();
+    private final ObservableSet<T> selection = FXCollections.observableSet(new LinkedHashSet<>());
+    private final Set<RowCell> cells = Collections.newSetFromMap(new WeakHashMap<>());
+    private boolean restyleQueued;
+    private int columns = 1;
+
+    public VirtualCardGrid(double cardWidth, double cardHeight, double gap, Function<T, Node> cardFactory) {
+        this.cardWidth = cardWidth;
+        this.gap = gap;
+        this.cardFactory = cardFactory;
+
+        setFixedCellSize(cardHeight + gap);
+        setSelectionModel(null);
+        setFocusTraversable(false);
+        setStyle("-fx-background-color: transparent; -fx-background-insets: 0; -fx-padding: 8;");
+        setCellFactory(v -> {
+            RowCell cell = new RowCell();
+            cells.add(cell);
+            return cell;
+        });
+        // Select All fires one change per item; restyle the cards once, after the last of them
+        selection.addListener((SetChangeListener<T>) c -> {
+            if (restyleQueued) return;
+            restyleQueued = true;
+            Platform.runLater(this::restyle);
+        });
+
+        widthProperty().addListener((o, a, b) -> {
+            int fit = columnsFor(b.doubleValue());
+            if (fit != columns) {
+                columns = fit;
+                rechunk();
+            }
+        });
+    }
+
+    /** Replaces the items; does nothing if they are the same, in the same order. */
+    public void setAll(List<? extends T> next) {
+        if (items.equals(next) && !getItems().isEmpty()) return;
+        items.clear();
+        items.addAll(next);
+        selection.retainAll(items);
+        rechunk();
+    }
+
+    /** Appends items, filling the last row and adding new ones; the rows before stay as they are. */
+    public void addAll(List<? extends T> more) {
+        if (more.isEmpty()) return;
+        int start = items.size();
+        items.addAll(more);
+        ObservableList<List<T>> rows = getItems();
+        if (rows.size() != (start + columns - 1) / columns) {
+            rechunk();
+            return;
+        }
+        int from = start - start % columns;
+        List<List<T>> added = new ArrayList<>();
+        for (int i = from; i < items.size(); i += columns) {
+            added.add(List.copyOf(items.subList(i, Math.min(i + columns, items.size()))));
+        }
+        if (from < start) rows.set(rows.size() - 1, added.remove(0));
+        rows.addAll(added);
+    }
+
+    /** The items currently shown, in order. */
+    public List<T> items() {
+        return List.copyOf(items);
+    }
+
+    public void clear() {
+        items.clear();
+        selection.clear();
+        getItems().clear();
+        setPlaceholder(null);
+    }
+
+    /** Shows {@code message} (loading, empty or error state) in place of the cards. */
+    public void showMessage(Node message) {
+        items.clear();
+        selection.clear();
+        getItems().clear();
+        setPlaceholder(message);
+    }
+
+    /** Selected items; pages may also change it, e.g. to select all or clear after an action. */
+    public ObservableSet<T> selection() {
+        return selection;
+    }
+
+    /** The selected items in display order. */
+    public List<T> selectedItems() {
+        List<T> out = new ArrayList<>();
+        for (T item : items) if (selection.contains(item)) out.add(item);
+        return out;
+    }
+
+    public void selectAll() {
+        selection.addAll(items);
+    }
+
+    private void toggle(T item) {
+        if (!selection.remove(item)) selection.add(item);
+    }
+
+    /** Shows the current selection on the cards that exist; only visible rows have any. */
+    private void restyle() {
+        restyleQueued = false;
+        for (RowCell cell : cells) cell.restyle();
+    }
+
+    private int columnsFor(double width) {
+        double usable = width - 16 - 18; // padding + vertical scrollbar
+        return Math.max(1, (int) ((usable + gap) / (cardWidth + gap)));
+    }
+
+    private void rechunk() {
+        ObservableList<List<T>> rows = FXCollections.observableArrayList();
+        for (int i = 0; i < items.size(); i += columns) {
+            rows.add(List.copyOf(items.subList(i, Math.min(i + columns, items.size()))));
+        }
+        getItems().setAll(rows);
+    }
+
+    private class RowCell extends ListCell<List<T>> {
+        private final HBox row = new HBox(gap);
+        /** Card nodes of the row this cell shows, so updating it again reuses them. */
+        private Map<T, Card> built = new HashMap<>();
+
+        RowCell() {
+            row.setAlignment(Pos.TOP_LEFT);
+            setStyle("-fx-background-color: transparent; -fx-padding: 0;");
+            setPrefWidth(0);
+        }
+
+        @Override
+        protected void updateItem(List<T> cards, boolean empty) {
+            super.updateItem(cards, empty);
+            if (empty || cards == null) {
+                row.getChildren().clear();
+                built.clear();
+                setGraphic(null);
+                return;
+            }
+            Map<T, Card> next = new HashMap<>();
+            List<Node> nodes = new ArrayList<>(cards.size());
+            for (T item : cards) {
+                // Taken out of the old map so an item listed twice still gets two nodes
+                Card card = built.remove(item);
+                if (card == null) card = new Card(item);
+                card.showSelected(selection.contains(item));
+                next.putIfAbsent(item, card);
+                nodes.add(card);
+            }
+            built = next;
+            if (!row.getChildren().equals(nodes)) row.getChildren().setAll(nodes);
+            setGraphic(row);
+        }
+
+        void restyle() {
+            built.forEach((item, card) -> card.showSelected(selection.contains(item)));
+        }
+    }
+
+    /** One card from {@code cardFactory}, with the click handling and look of a selectable card. */
+    private class Card extends StackPane {
+        private final Label check = new Label("\u2713");
+
+        Card(T item) {
+            super(cardFactory.apply(item));
+            addEventFilter(MouseEvent.MOUSE_CLICKED, e -> {
+                if (!e.isShortcutDown() && selection.isEmpty()) return;
+                toggle(item);
+                e.consume();
+            });
+            check.setStyle("""
+                    -fx-background-color: #3B82F6;
+                    -fx-text-fill: white;
+                    -fx-font-weight: bold;
+                    -fx-background-radius: 12px;
+                    -fx-padding: 2px 7px;
+                    """);
+            StackPane.setAlignment(check, Pos.TOP_RIGHT);
+        }
+
+        void showSelected(boolean selected) {
+            if (selected == getChildren().contains(check)) return;
+            if (selected) {
+                getChildren().add(check);
+                setStyle("-fx-border-color: #3B82F6; -fx-border-width: 2px; -fx-border-radius: 14px;");
+            } else {
+                getChildren().remove(check);
+                setStyle("");
+            }
+        }
+    }
+}
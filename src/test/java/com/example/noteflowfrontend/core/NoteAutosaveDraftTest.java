@@ -0,0 +1,101 @@
+package com.example.noteflowfrontend.core;
+
+import com.example.noteflowfrontend.core.NoteAutosave.Draft;
+import com.example.noteflowfrontend.core.NoteAutosave.Field;
+import com.example.noteflowfrontend.drawing.Stroke;
+import com.example.noteflowfrontend.drawing.StrokeCodec;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NoteAutosaveDraftTest {
+
+    private static Stroke stroke(float x) {
+        Stroke s = new Stroke(0xFF000000, 2f, false);
+        s.add(x, x);
+        s.add(x + 1, x + 2);
+        return s;
+    }
+
+    private static Draft drawing(List<Stroke> strokes) {
+        return new Draft("Sketch", null, strokes, null, null);
+    }
+
+    @Test
+    void changedSinceListsOnlyDifferingFields() {
+        Draft base = new Draft("Title", "<p>a</p>", null, "work", "#fff");
+        Draft edited = new Draft("Title", "<p>b</p>", null, "home", "#fff");
+
+        assertEquals(EnumSet.of(Field.TEXT, Field.TAG_NAME), edited.changedSince(base));
+        assertEquals(EnumSet.allOf(Field.class), edited.changedSince(null));
+        assertTrue(base.changedSince(base).isEmpty());
+    }
+
+    @Test
+    void patchCarriesOnlyChangedFields() {
+        Draft base = new Draft("Old", "<p>same</p>", null, null, null);
+        Draft edited = new Draft("New", "<p>same</p>", null, null, null);
+
+        Map<String, Object> body = edited.patchSince(base, edited.changedSince(base));
+
+        assertEquals(Map.of("title", "New"), body);
+    }
+
+    @Test
+    void addedStrokesGoAsDrawingAppend() {
+        Stroke first = stroke(1);
+        Stroke second = stroke(5);
+        Draft base = drawing(List.of(first));
+        Draft edited = drawing(List.of(first, second));
+
+        Map<String, Object> body = edited.patchSince(base, edited.changedSince(base));
+
+        assertEquals(Set.of("drawingAppend"), body.keySet());
+        assertEquals(StrokeCodec.encode(List.of(second)), body.get("drawingAppend"));
+    }
+
+    @Test
+    void undoOrRedrawSendsTheWholeDrawing() {
+        Stroke first = stroke(1);
+        Draft base = drawing(List.of(first, stroke(5)));
+
+        Draft undone = drawing(List.of(first));
+        assertEquals(Set.of("drawingJson"), undone.patchSince(base, undone.changedSince(base)).keySet());
+
+        // Same shape, different stroke instance: an undo followed by a new stroke
+        Draft replaced = drawing(List.of(stroke(1), stroke(9)));
+        Map<String, Object> body = replaced.patchSince(base, replaced.changedSince(base));
+        assertEquals(Set.of("drawingJson"), body.keySet());
+        assertEquals(replaced.drawingJson(), body.get("drawingJson"));
+    }
+
+    @Test
+    void firstStrokesOnAnEmptyDrawingSendTheWholeDrawing() {
+        Draft base = drawing(List.of());
+        Draft edited = drawing(List.of(stroke(1)));
+
+        assertEquals(Set.of("drawingJson"), edited.patchSince(base, edited.changedSince(base)).keySet());
+    }
+
+    @Test
+    void fullBodyHasEveryField() {
+        Draft d = new Draft("T", "<p>x</p>", null, "tag", "#000");
+
+        Map<String, Object> body = d.fullBody();
+
+        assertEquals(Set.of("title", "textHtml", "drawingJson", "tagName", "tagColor"), body.keySet());
+        assertNull(body.get("drawingJson"));
+    }
+
+    @Test
+    void blankDraftIgnoresEmptyMarkup() {
+        assertTrue(new Draft(" ", "<p><br></p>", List.of(), null, null).isBlank());
+        assertFalse(new Draft(null, "<p>hi</p>", null, null, null).isBlank());
+        assertFalse(drawing(List.of(stroke(1))).isBlank());
+    }
+}
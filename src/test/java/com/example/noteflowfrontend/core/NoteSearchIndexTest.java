@@ -0,0 +1,77 @@
+package com.example.noteflowfrontend.core;
+
+import com.example.noteflowfrontend.core.dto.NoteDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NoteSearchIndexTest {
+
+    private static NoteDto note(long id, String title, String textHtml) {
+        return new NoteDto(id, title, textHtml, null, false, false, null, null, null, null, null);
+    }
+
+    @Test
+    void matchesWordPrefixesAndRequiresEveryWord() {
+        NoteSearchIndex index = new NoteSearchIndex();
+        index.index(note(1, "Team meeting", "<p>Agenda for Monday</p>"));
+        index.index(note(2, "Groceries", "<p>Meet Sam at the market</p>"));
+
+        assertEquals(Set.of(1L, 2L), index.search("mee").keySet());
+        assertEquals(List.of(1L), List.copyOf(index.search("mee monday").keySet()));
+        assertTrue(index.search("mee tuesday").isEmpty());
+        assertTrue(index.search("   ").isEmpty());
+    }
+
+    @Test
+    void titleHitsRankFirst() {
+        NoteSearchIndex index = new NoteSearchIndex();
+        index.index(note(1, "Shopping", "<p>budget budget</p>"));
+        index.index(note(2, "Budget", "<p>for the trip</p>"));
+
+        assertEquals(List.of(2L, 1L), List.copyOf(index.search("budget").keySet()));
+    }
+
+    @Test
+    void reindexingAndRemovingReplaceOldTerms() {
+        NoteSearchIndex index = new NoteSearchIndex();
+        index.index(note(1, "Draft", "<p>alpha</p>"));
+        index.index(note(1, "Draft", "<p>beta</p>"));
+
+        assertTrue(index.search("alpha").isEmpty());
+        assertEquals(List.of(1L), List.copyOf(index.search("beta").keySet()));
+
+        index.remove(1);
+        assertTrue(index.search("beta").isEmpty());
+        assertTrue(index.search("draft").isEmpty());
+    }
+
+    @Test
+    void ignoresMarkupScriptsAndDecodesEntities() {
+        NoteSearchIndex index = new NoteSearchIndex();
+        index.index(note(1, null, "<div class=\"hidden\">Fish &amp; chips</div><script>secret()</script><!-- note -->"));
+
+        assertEquals(List.of(1L), List.copyOf(index.search("chips").keySet()));
+        assertTrue(index.search("hidden").isEmpty());
+        assertTrue(index.search("secret").isEmpty());
+        assertTrue(index.search("note").isEmpty());
+        assertEquals(" Fish & chips  ", NoteSearchIndex.stripHtml("<b>Fish &amp; chips</b><br>"));
+    }
+
+    @Test
+    void tokenizesOnNonLetters() {
+        assertEquals(List.of("café", "2024", "to", "do"), NoteSearchIndex.tokenize("Café-2024: To_do!"));
+    }
+
+    @Test
+    void matchesAppliesTheSameRulesWithoutAnIndex() {
+        NoteDto n = note(1, "Weekly review", "<p>Numbers &amp; plans</p>");
+
+        assertTrue(NoteSearchIndex.matches(n, "rev plan"));
+        assertTrue(NoteSearchIndex.matches(n, ""));
+        assertFalse(NoteSearchIndex.matches(n, "review budget"));
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.noteflowfrontend.core;
+
+import com.example.noteflowfrontend.core.Outbox.Merge;
+import com.example.noteflowfrontend.core.Outbox.Op;
+import com.example.noteflowfrontend.drawing.Stroke;
+import com.example.noteflowfrontend.drawing.StrokeCodec;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OutboxMergeTest {
+
+    private static Op op(String kind, Map<String, Object> body) {
+        return new Op(1, kind, 7L, body == null ? null : new HashMap<>(body));
+    }
+
+    private static String drawing(float... xs) {
+        List<Stroke> strokes = new ArrayList<>();
+        for (float x : xs) {
+            Stroke s = new Stroke(0xFF000000, 2f, false);
+            s.add(x, x);
+            strokes.add(s);
+        }
+        return StrokeCodec.encode(strokes);
+    }
+
+    @Test
+    void patchesFoldIntoOne() {
+        Op tail = op(Outbox.NOTE_PATCH, Map.of("title", "a", "textHtml", "<p>1</p>"));
+
+        assertEquals(Merge.MERGED, Outbox.merge(tail, Outbox.NOTE_PATCH, Map.of("title", "b")));
+        assertEquals(Outbox.NOTE_PATCH, tail.kind);
+        assertEquals(Map.of("title", "b", "textHtml", "<p>1</p>"), tail.body);
+    }
+
+    @Test
+    void drawingAppendsAreJoined() {
+        Op tail = op(Outbox.NOTE_PATCH, Map.of("drawingAppend", drawing(1)));
+
+        assertEquals(Merge.MERGED, Outbox.merge(tail, Outbox.NOTE_PATCH, Map.of("drawingAppend", drawing(2))));
+        assertEquals(drawing(1, 2), tail.body.get("drawingAppend"));
+    }
+
+    @Test
+    void appendAfterAFullDrawingExtendsIt() {
+        Op tail = op(Outbox.NOTE_PUT, Map.of("title", "t", "drawingJson", drawing(1)));
+
+        assertEquals(Merge.MERGED, Outbox.merge(tail, Outbox.NOTE_PATCH, Map.of("drawingAppend", drawing(2))));
+        assertEquals(Outbox.NOTE_PUT, tail.kind);
+        assertEquals(drawing(1, 2), tail.body.get("drawingJson"));
+        assertFalse(tail.body.containsKey("drawingAppend"));
+    }
+
+    @Test
+    void fullDrawingReplacesAPendingAppend() {
+        Op tail = op(Outbox.NOTE_PATCH, Map.of("drawingAppend", drawing(1)));
+
+        assertEquals(Merge.MERGED, Outbox.merge(tail, Outbox.NOTE_PATCH, Map.of("drawingJson", drawing(3))));
+        assertEquals(Map.of("drawingJson", drawing(3)), tail.body);
+    }
+
+    @Test
+    void unjoinableDrawingsAreNotMerged() {
+        Map<String, Object> before = Map.of("title", "a", "drawingAppend", "nfd1:not-base64!");
+        Op tail = op(Outbox.NOTE_PATCH, before);
+
+        assertEquals(Merge.NONE, Outbox.merge(tail, Outbox.NOTE_PATCH, Map.of("title", "b", "drawingAppend", drawing(2))));
+        assertEquals(before, tail.body);
+    }
+
+    @Test
+    void putAfterPatchBecomesOnePut() {
+        Op tail = op(Outbox.NOTE_PATCH, Map.of("title", "a"));
+        Map<String, Object> full = Map.of("title", "b", "textHtml", "<p>x</p>");
+
+        assertEquals(Merge.MERGED, Outbox.merge(tail, Outbox.NOTE_PUT, full));
+        assertEquals(Outbox.NOTE_PUT, tail.kind);
+        assertEquals(full, tail.body);
+    }
+
+    @Test
+    void editsFoldIntoAQueuedCreate() {
+        Op tail = op(Outbox.NOTE_CREATE, Map.of("title", "draft", "textHtml", "<p></p>"));
+
+        assertEquals(Merge.MERGED, Outbox.merge(tail, Outbox.NOTE_PATCH, Map.of("textHtml", "<p>body</p>")));
+        assertEquals(Outbox.NOTE_CREATE, tail.kind);
+        assertEquals(Map.of("title", "draft", "textHtml", "<p>body</p>"), tail.body);
+    }
+
+    @Test
+    void flagsMergeOnlyWithTheSameFlag() {
+        Op favorite = op(Outbox.NOTE_FAVORITE, Map.of("value", true));
+
+        assertEquals(Merge.MERGED, Outbox.merge(favorite, Outbox.NOTE_FAVORITE, Map.of("value", false)));
+        assertEquals(Map.of("value", false), favorite.body);
+        assertEquals(Merge.NONE, Outbox.merge(favorite, Outbox.NOTE_TRASH, Map.of("value", true)));
+        assertEquals(Merge.NONE, Outbox.merge(op(Outbox.NOTE_PATCH, Map.of("title", "a")), Outbox.NOTE_FAVORITE, Map.of("value", true)));
+    }
+
+    @Test
+    void todoDeleteCancelsAQueuedCreate() {
+        Op created = op(Outbox.TODO_CREATE, Map.of("taskName", "buy milk"));
+
+        assertEquals(Merge.CANCELS, Outbox.merge(created, Outbox.TODO_DELETE, null));
+        assertEquals(Outbox.TODO_CREATE, created.kind);
+    }
+
+    @Test
+    void todoUpdatesFoldAndDeleteReplacesThem() {
+        Op tail = op(Outbox.TODO_UPDATE, Map.of("taskId", 7, "status", "active"));
+
+        assertEquals(Merge.MERGED, Outbox.merge(tail, Outbox.TODO_UPDATE, Map.of("taskId", 7, "status", "closed")));
+        assertEquals("closed", tail.body.get("status"));
+        assertEquals(Merge.MERGED, Outbox.merge(tail, Outbox.TODO_DELETE, null));
+        assertEquals(Outbox.TODO_DELETE, tail.kind);
+        assertNull(tail.body);
+    }
+
+    @Test
+    void updateToAQueuedTodoCreateDropsTheTemporaryId() {
+        Op created = op(Outbox.TODO_CREATE, Map.of("taskName", "a"));
+
+        assertEquals(Merge.MERGED, Outbox.merge(created, Outbox.TODO_UPDATE, Map.of("taskId", -1, "taskName", "b")));
+        assertEquals(Outbox.TODO_CREATE, created.kind);
+        assertEquals(Map.of("taskName", "b"), created.body);
+    }
+
+    @Test
+    void noteAndTodoWritesNeverMerge() {
+        assertEquals(Merge.NONE, Outbox.merge(op(Outbox.TODO_UPDATE, Map.of("status", "a")), Outbox.NOTE_PATCH, Map.of("title", "x")));
+        assertEquals(Merge.NONE, Outbox.merge(op(Outbox.NOTE_BATCH, Map.of("action", "trash")), Outbox.NOTE_BATCH, Map.of("action", "restore")));
+    }
+}
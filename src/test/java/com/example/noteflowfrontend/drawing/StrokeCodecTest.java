@@ -0,0 +1,108 @@
+package com.example.noteflowfrontend.drawing;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StrokeCodecTest {
+
+    private static Stroke stroke(int argb, float width, boolean eraser, float... xy) {
+        Stroke s = new Stroke(argb, width, eraser);
+        for (int i = 0; i < xy.length; i += 2) s.add(xy[i], xy[i + 1]);
+        return s;
+    }
+
+    private static void assertSameStrokes(List<Stroke> expected, List<Stroke> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int s = 0; s < expected.size(); s++) {
+            Stroke e = expected.get(s), a = actual.get(s);
+            assertEquals(e.argb(), a.argb());
+            assertEquals(e.width(), a.width(), 0.005f);
+            assertEquals(e.eraser(), a.eraser());
+            assertEquals(e.pointCount(), a.pointCount());
+            for (int i = 0; i < e.pointCount(); i++) {
+                assertEquals(e.x(i), a.x(i), 0.05f);
+                assertEquals(e.y(i), a.y(i), 0.05f);
+            }
+        }
+    }
+
+    @Test
+    void roundTripKeepsStrokesToATenthOfAPixel() throws IOException {
+        List<Stroke> strokes = List.of(
+                stroke(0xFF112233, 2.5f, false, 10.04f, 20.96f, 11.5f, 19.25f, -3.1f, 400.7f),
+                stroke(0x80FFFFFF, 12f, true, 0f, 0f),
+                stroke(0xFF000000, 0.33f, false));
+
+        String encoded = StrokeCodec.encode(strokes);
+
+        assertTrue(encoded.startsWith(StrokeCodec.PREFIX));
+        assertSameStrokes(strokes, StrokeCodec.decode(encoded));
+    }
+
+    @Test
+    void emptyDrawingIsBlank() throws IOException {
+        assertEquals("", StrokeCodec.encode(List.of()));
+        assertTrue(StrokeCodec.decode("").isEmpty());
+        assertTrue(StrokeCodec.decode(null).isEmpty());
+    }
+
+    @Test
+    void decodesLegacyJsonEvents() throws IOException {
+        String legacy = """
+                [{"m":"down","x":1,"y":2,"w":4,"c":"#FF0000"},{"m":"drag","x":3,"y":4},{"m":"up"},
+                 {"m":"down","x":5,"y":6,"er":true},{"m":"drag","x":7.5,"y":8.5,"extra":{"ignored":[1,2]}}]
+                """;
+
+        List<Stroke> strokes = StrokeCodec.decode(legacy);
+
+        assertSameStrokes(List.of(
+                stroke(0xFFFF0000, 4f, false, 1, 2, 3, 4),
+                stroke(0xFF000000, 3f, true, 5, 6, 7.5f, 8.5f)), strokes);
+    }
+
+    @Test
+    void rejectsTruncatedData() {
+        String encoded = StrokeCodec.encode(List.of(stroke(0xFF000000, 1f, false, 1, 1, 2, 2)));
+        String truncated = encoded.substring(0, encoded.length() - 4);
+
+        assertThrows(IOException.class, () -> StrokeCodec.decode(truncated));
+        assertThrows(IOException.class, () -> StrokeCodec.decode(StrokeCodec.PREFIX + "not-base64!"));
+        assertThrows(IOException.class, () -> StrokeCodec.concat(encoded, StrokeCodec.PREFIX + "%%"));
+    }
+
+    @Test
+    void concatMatchesEncodingBothListsTogether() throws IOException {
+        List<Stroke> first = new ArrayList<>();
+        List<Stroke> second = new ArrayList<>();
+        for (int k = 0; k < 20; k++) {
+            (k < 12 ? first : second).add(stroke(0xFF000000 | k, 1 + k, k % 5 == 0, k, -k, k * 2.5f, k * 0.5f));
+        }
+        List<Stroke> all = new ArrayList<>(first);
+        all.addAll(second);
+
+        assertEquals(StrokeCodec.encode(all), StrokeCodec.concat(StrokeCodec.encode(first), StrokeCodec.encode(second)));
+    }
+
+    @Test
+    void concatWithBlankOrLegacyInput() throws IOException {
+        String binary = StrokeCodec.encode(List.of(stroke(0xFF00FF00, 2f, false, 1, 1)));
+        String legacy = "[{\"m\":\"down\",\"x\":1,\"y\":2},{\"m\":\"up\"}]";
+
+        assertEquals(binary, StrokeCodec.concat(null, binary));
+        assertEquals(binary, StrokeCodec.concat(binary, ""));
+        assertEquals(2, StrokeCodec.decode(StrokeCodec.concat(legacy, binary)).size());
+    }
+
+    @Test
+    void parsesColors() {
+        assertEquals(0xFF3B82F6, StrokeCodec.parseColor("#3B82F6"));
+        assertEquals(0x803B82F6, StrokeCodec.parseColor("#3B82F680"));
+        assertEquals(0xFF000000, StrokeCodec.parseColor("blue"));
+        assertEquals(0xFF000000, StrokeCodec.parseColor(null));
+    }
+}